@@ -0,0 +1,121 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+import org.trikkle.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Contention on arc and node state. {@code lockedClaim} and {@code casClaim} compare claiming arcs under one monitor,
+ * as the overseer used to, with claiming them by compare-and-set, as it does now. {@code nodeProgress} and
+ * {@code fanOut} measure the overseer itself; run them on the parent commit for the lock-based numbers.
+ */
+@Fork(value = 1, warmups = 0)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContentionBenchmarks {
+	private static final int ARCS = 64;
+	private static final int IDLE = 0, STAND_BY = 1;
+
+	@Benchmark
+	public boolean lockedClaim(LockedStatuses state) {
+		int a = ThreadLocalRandom.current().nextInt(ARCS);
+		synchronized (state.statuses) {
+			if (state.statuses[a] != IDLE) return false;
+			state.statuses[a] = STAND_BY;
+		}
+		synchronized (state.statuses) {
+			state.statuses[a] = IDLE;
+		}
+		return true;
+	}
+
+	@Benchmark
+	public boolean casClaim(AtomicStatuses state) {
+		int a = ThreadLocalRandom.current().nextInt(ARCS);
+		if (state.statuses.get(a) != IDLE || !state.statuses.compareAndSet(a, IDLE, STAND_BY)) return false;
+		state.statuses.set(a, IDLE);
+		return true;
+	}
+
+	@Benchmark
+	public boolean nodeProgress(Nodes state) {
+		Node node = state.nodes.get(ThreadLocalRandom.current().nextInt(state.nodes.size()));
+		node.setProgress(0.5);
+		return node.isUsable();
+	}
+
+	@Benchmark
+	@Threads(1) // the overseer is parallel itself
+	@BenchmarkMode(Mode.SampleTime)
+	public Overseer fanOut(FanOut state) {
+		state.overseer.start();
+		return state.overseer;
+	}
+
+	@State(Scope.Benchmark)
+	public static class LockedStatuses {
+		final int[] statuses = new int[ARCS];
+	}
+
+	@State(Scope.Benchmark)
+	public static class AtomicStatuses {
+		final AtomicIntegerArray statuses = new AtomicIntegerArray(ARCS);
+	}
+
+	@State(Scope.Benchmark)
+	public static class Nodes {
+		final List<Node> nodes = new ArrayList<>();
+		Overseer overseer; // primes the nodes
+
+		@Setup(Level.Trial)
+		public void setup() {
+			List<Link> links = new ArrayList<>();
+			for (int i = 0; i < ARCS; i++) {
+				Node node = new EmptyNode();
+				nodes.add(node);
+				links.add(new Link(Set.of(), new AutoArc() {
+					@Override
+					protected void run() {
+					}
+				}, node));
+			}
+			overseer = new Overseer(new Graph(links));
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class FanOut {
+		final Plan plan;
+		Overseer overseer;
+
+		public FanOut() {
+			Node source = new DiscreteNode("source");
+			List<Link> links = new ArrayList<>();
+			for (int i = 0; i < 2048; i++) {
+				String datumName = "out" + i;
+				links.add(new Link(Set.of(source), new AutoArc() {
+					@Override
+					protected void run() {
+						returnDatum(datumName, getDatum("source"));
+					}
+				}, new DiscreteNode(datumName)));
+			}
+			plan = new Plan(new Graph(links));
+		}
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			overseer = new Overseer(plan);
+			overseer.addStartingDatum("source", 1);
+		}
+	}
+}
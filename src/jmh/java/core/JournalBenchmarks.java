@@ -0,0 +1,94 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+import org.trikkle.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of journaling every datum of a chain of arcs. Compare {@code journaled} with {@code plain}; the writer thread
+ * of the journal competes with the overseer for the processors, so the difference shrinks with more of them.
+ * {@code durable} also waits for every datum to be forced to disk, so its writes are not left to the next invocation.
+ */
+@Fork(value = 1, warmups = 0)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JournalBenchmarks {
+	private static final int LENGTH = 10000;
+
+	@Benchmark
+	public Overseer plain(Chain state) {
+		state.overseer.start();
+		return state.overseer;
+	}
+
+	@Benchmark
+	public Overseer journaled(Chain state) throws IOException {
+		state.overseer.setJournal(state.journal);
+		state.overseer.start();
+		return state.overseer;
+	}
+
+	@Benchmark
+	public Overseer durable(Chain state) {
+		state.overseer.setJournal(state.journal);
+		state.overseer.start();
+		state.journal.flush();
+		return state.overseer;
+	}
+
+	@State(Scope.Benchmark)
+	public static class Chain {
+		final Plan plan;
+		Path file;
+		Journal journal;
+		Overseer overseer;
+
+		public Chain() {
+			List<Link> links = new ArrayList<>();
+			Node previous = new DiscreteNode("x0");
+			for (int i = 1; i <= LENGTH; i++) {
+				String inputName = "x" + (i - 1);
+				String outputName = "x" + i;
+				Node next = new DiscreteNode(outputName);
+				links.add(new Link(Set.of(previous), new AutoArc() {
+					@Override
+					protected void run() {
+						returnLong(outputName, getLong(inputName) + 1);
+					}
+				}, next));
+				previous = next;
+			}
+			plan = new Plan(new Graph(links));
+		}
+
+		@Setup(Level.Trial)
+		public void open() throws IOException {
+			file = Files.createTempFile("trikkle", ".journal");
+			journal = new Journal(file, DatumCodec.SERIALIZATION);
+		}
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			overseer = new Overseer(plan);
+			overseer.setParallel(false);
+			overseer.setEventLoop(true);
+			overseer.setDependencyCounting(true);
+			overseer.addStartingDatum("x0", 0L);
+		}
+
+		@TearDown(Level.Trial)
+		public void close() throws IOException {
+			journal.close();
+			Files.delete(file);
+		}
+	}
+}
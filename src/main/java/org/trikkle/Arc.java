@@ -1,32 +1,45 @@
 package org.trikkle;
 
+import org.trikkle.annotations.Blocking;
 import org.trikkle.annotations.Input;
 import org.trikkle.annotations.Output;
 import org.trikkle.structs.StrictHashMap;
 
-import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A wrapper for a function that can be run by an overseer.
+ * <p>
+ * The status of an arc is kept by the {@link Overseer} running it, so the same arc may be in use by several overseers
+ * at once. The arc's methods act on the overseer running on the current thread, or, failing that, on the overseer the
+ * arc was primed with.
  *
  * @see Input
  * @see Output
  * @since 0.1.0
  */
-public abstract class Arc implements Primable {
+public abstract class Arc implements Primable, Cloneable {
+	static final ThreadLocal<Map<String, Object>> ATTEMPT = new ThreadLocal<>(); // datums of a hedged attempt
 	private final ReentrantLock lock = new ReentrantLock();
 	private final boolean safe;
-	private Map<String, Field> inputFields, outputFields;
+	private boolean blocking;
+	private double cost = -1;
+	private Resource resource;
+	private Memo memo;
+	private Hedge hedge;
+	private long timeout = -1; // in nanoseconds
+	private ArcBinder binder; // null if this arc has no Input or Output fields
+	// datum names to the indices of the fields in the binder, shared with the binder until aliased
+	private Map<String, Integer> inputFields, outputFields;
 	private Set<String> inputDatumNames, outputDatumNames;
 	private String name;
 
-	private long startTime = -1, endTime = -1;
-	private ArcStatus status = ArcStatus.IDLE;
 	private Overseer overseer;
-	private Link link;
-	private Set<Node> outputNodesRemaining; // could be stale
+	// the arc this is a copy of, run by an overseer the arc is not primed with so that its fields are its own
+	private Arc original;
+	Graph.Index graphIndex; // the index of this arc in the last graph built with it
 
 	/**
 	 * A safe arc is one that cannot be set to a status that is less than its current status. This means it can only be
@@ -37,39 +50,15 @@ public abstract class Arc implements Primable {
 	 */
 	public Arc(boolean safe) {
 		this.safe = safe;
+		this.blocking = getClass().isAnnotationPresent(Blocking.class);
 
-		Field[] fields = getClass().getDeclaredFields();
-		boolean hasAnnotations = false;
-		for (Field field : fields) {
-			if (field.isAnnotationPresent(Input.class) || field.isAnnotationPresent(Output.class)) {
-				hasAnnotations = true;
-				break;
-			}
-		}
-
-		if (hasAnnotations) {
-			inputFields = new StrictHashMap<>();
-			outputFields = new StrictHashMap<>();
+		// the fields of the class are only looked up by the first arc of the class, see ArcBinder
+		binder = ArcBinder.of(getClass());
+		if (binder != null) {
+			inputFields = binder.inputIndex;
+			outputFields = binder.outputIndex;
 			inputDatumNames = inputFields.keySet();
 			outputDatumNames = outputFields.keySet();
-
-			for (Field field : fields) {
-				if (field.isAnnotationPresent(Input.class)) {
-					String name = field.getAnnotation(Input.class).name();
-					if (!name.isEmpty()) {
-						inputFields.put(name, field);
-					} else {
-						inputFields.put(field.getName(), field);
-					}
-				} else if (field.isAnnotationPresent(Output.class)) {
-					String name = field.getAnnotation(Output.class).name();
-					if (!name.isEmpty()) {
-						outputFields.put(name, field);
-					} else {
-						outputFields.put(field.getName(), field);
-					}
-				}
-			}
 		}
 	}
 
@@ -96,9 +85,65 @@ public abstract class Arc implements Primable {
 	protected abstract void run(); // lambda won't work because it won't allow for multiple parameter inputs
 
 	void runWrapper() {
-		if (inputFields != null) autoFill();
+		if (inputFields == null && outputFields == null) {
+			run();
+			return;
+		}
+
+		Overseer overseer = requireOverseer();
+		// the fields are shared by every overseer running this arc, so only the one it is primed with runs it in place
+		Arc target = overseer == this.overseer ? this : copyFor(overseer);
+		Memo memo = this.memo;
+		if (memo == null) {
+			target.runUnboxed();
+			return;
+		}
+		Object[] inputs = inputFields == null ? new Object[0] : target.readInputs();
+		Object[] memoized = memo.get(this, inputs);
+		if (memoized != null) {
+			target.autoReturn(memoized);
+			return;
+		}
+
+		Object[] outputs = null;
+		if (inputFields != null) target.autoFill(inputs);
+		target.run();
+		if (outputFields != null) outputs = target.readOutputs();
+		memo.put(this, inputs, outputs);
+		if (outputs != null) target.autoReturn(outputs);
+	}
+
+	private void runUnboxed() { // without a memo to key, double, long and int fields need not be boxed
+		if (inputFields != null) fillInputs();
 		run();
-		if (outputFields != null) autoReturn();
+		if (outputFields != null) {
+			Object[] outputs = new Object[binder.outputKinds.length];
+			long[] bits = new long[binder.outputKinds.length];
+			readOutputs(outputs, bits);
+			returnOutputs(outputs, bits);
+		}
+	}
+
+	/**
+	 * @return a shallow copy of this arc that acts on the given overseer, for one run
+	 */
+	private Arc copyFor(Overseer overseer) {
+		Arc copy;
+		try {
+			copy = (Arc) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e); // Arc is Cloneable
+		}
+		copy.original = this;
+		copy.overseer = overseer;
+		return copy;
+	}
+
+	/**
+	 * @return the arc this is a copy of, or this arc
+	 */
+	Arc original() {
+		return original == null ? this : original;
 	}
 
 	/**
@@ -109,11 +154,12 @@ public abstract class Arc implements Primable {
 	 * @throws NullPointerException if there is no datum with the given name in the cache
 	 */
 	protected <T> T getDatum(String datumName) {
-		if (!overseer.getCache().containsKey(datumName)) {
+		Object datum = requireOverseer().getDatumStore().lookup(datumName);
+		if (datum == null) {
 			throw new NullPointerException("No datum with name " + datumName + " is in the cache!");
 		}
 		//noinspection unchecked
-		return (T) overseer.getCache().get(datumName);
+		return (T) DatumStore.unwrap(datum);
 	}
 
 	/**
@@ -124,11 +170,129 @@ public abstract class Arc implements Primable {
 	 * @return the datum with the given name, or the default value if the datum is not in the cache
 	 */
 	protected <T> T getDatum(String datumName, T defaultValue) {
-		if (!overseer.getCache().containsKey(datumName)) {
+		Object datum = requireOverseer().getDatumStore().lookup(datumName);
+		if (datum == null) {
 			return defaultValue;
 		}
 		//noinspection unchecked
-		return (T) overseer.getCache().get(datumName);
+		return (T) DatumStore.unwrap(datum);
+	}
+
+	/**
+	 * Gets the datum of the given key from the overseer's cache, by its slot rather than its name.
+	 *
+	 * @param key the key of the datum
+	 * @return the datum
+	 * @throws NullPointerException if the datum is not in the cache
+	 * @see DatumKey
+	 */
+	protected final <T> T getDatum(DatumKey<T> key) {
+		Overseer overseer = requireOverseer();
+		int slot = key.slotIn(overseer.plan);
+		DatumStore store = overseer.getDatumStore();
+		Object datum = slot == -1 ? store.lookup(key.getName()) : store.lookup(slot);
+		if (datum == null) {
+			throw new NullPointerException("No datum with name " + key.getName() + " is in the cache!");
+		}
+		//noinspection unchecked
+		return (T) DatumStore.unwrap(datum);
+	}
+
+	/**
+	 * Gets the double datum with the given name from the overseer's cache. A double returned with
+	 * {@link #returnDouble(String, double)} to a {@link DiscreteNode} is read without boxing it.
+	 *
+	 * @param datumName the name of the datum
+	 * @return the datum with the given name
+	 * @throws NullPointerException if there is no datum with the given name in the cache
+	 * @throws ClassCastException   if the datum is not a double
+	 */
+	protected final double getDouble(String datumName) {
+		return Double.longBitsToDouble(getBits(datumName, DatumStore.DOUBLE));
+	}
+
+	/**
+	 * Gets the double datum of the given key from the overseer's cache, by its slot rather than its name.
+	 *
+	 * @see #getDouble(String)
+	 */
+	protected final double getDouble(DatumKey<Double> key) {
+		return Double.longBitsToDouble(getBits(key, DatumStore.DOUBLE));
+	}
+
+	/**
+	 * Gets the long datum with the given name from the overseer's cache.
+	 *
+	 * @see #getDouble(String)
+	 */
+	protected final long getLong(String datumName) {
+		return getBits(datumName, DatumStore.LONG);
+	}
+
+	/**
+	 * Gets the long datum of the given key from the overseer's cache, by its slot rather than its name.
+	 *
+	 * @see #getDouble(String)
+	 */
+	protected final long getLong(DatumKey<Long> key) {
+		return getBits(key, DatumStore.LONG);
+	}
+
+	/**
+	 * Gets the int datum with the given name from the overseer's cache.
+	 *
+	 * @see #getDouble(String)
+	 */
+	protected final int getInt(String datumName) {
+		return (int) getBits(datumName, DatumStore.INT);
+	}
+
+	/**
+	 * Gets the int datum of the given key from the overseer's cache, by its slot rather than its name.
+	 *
+	 * @see #getDouble(String)
+	 */
+	protected final int getInt(DatumKey<Integer> key) {
+		return (int) getBits(key, DatumStore.INT);
+	}
+
+	private long getBits(String datumName, Object kind) {
+		Overseer overseer = requireOverseer();
+		return getBits(overseer, overseer.plan.slotOf(datumName), datumName, kind);
+	}
+
+	private long getBits(DatumKey<?> key, Object kind) {
+		Overseer overseer = requireOverseer();
+		return getBits(overseer, key.slotIn(overseer.plan), key.getName(), kind);
+	}
+
+	private long getBits(Overseer overseer, int slot, String datumName, Object kind) {
+		DatumStore store = overseer.getDatumStore();
+		if (slot != -1) return store.getBits(slot, kind);
+		Object datum = store.lookup(datumName); // not in the plan, so it was boxed by the initial cache
+		if (datum == null) {
+			throw new NullPointerException("No datum with name " + datumName + " is in the cache!");
+		}
+		return DatumStore.bitsOf(kind, DatumStore.unwrap(datum));
+	}
+
+	/**
+	 * Returns the datum of the given key to the overseer's cache, finding its node by the slot of the datum rather than
+	 * its name. The datum can be null.
+	 *
+	 * @param key   the key of the datum
+	 * @param datum the datum to return
+	 * @throws NullPointerException     if the datum is not associated with any node
+	 * @throws IllegalArgumentException if the node with this datum is not an output of this arc
+	 * @see DatumKey
+	 */
+	protected final <T> void returnDatum(DatumKey<T> key, T datum) {
+		Overseer overseer = requireOverseer();
+		int slot = key.slotIn(overseer.plan);
+		if (slot == -1) {
+			throw new NullPointerException("No output node is associated with datum " + key.getName() + "!");
+		}
+		returnDatum(overseer.plan.nodes[overseer.plan.nodeOfSlot[slot]], key.getName(), datum);
 	}
 
 	/**
@@ -141,13 +305,102 @@ public abstract class Arc implements Primable {
 	 * @throws IllegalArgumentException if the node with this datum is not an output of this arc
 	 */
 	protected final void returnDatum(String datumName, Object datum) {
-		Node node = overseer.getNodeOfDatum(datumName);
+		Node node = requireOverseer().getNodeOfDatum(datumName);
 		if (node == null) {
 			throw new NullPointerException("No output node is associated with datum " + datumName + "!");
 		}
+		returnDatum(node, datumName, datum);
+	}
+
+	/**
+	 * Returns the double datum with the given name to the overseer's cache. If its node is a {@link DiscreteNode}, the
+	 * datum is stored without boxing it, and only boxed if it is read as an object, e.g. with {@link #getDatum(String)}
+	 * or from the results of the overseer.
+	 *
+	 * @param datumName the name of the datum
+	 * @param datum     the datum to return
+	 * @throws NullPointerException     if the datum name is not associated with any node
+	 * @throws IllegalArgumentException if the node with this datum is not an output of this arc
+	 */
+	protected final void returnDouble(String datumName, double datum) {
+		returnBits(datumName, DatumStore.DOUBLE, Double.doubleToRawLongBits(datum));
+	}
 
+	/**
+	 * Returns the double datum of the given key to the overseer's cache, by its slot rather than its name.
+	 *
+	 * @see #returnDouble(String, double)
+	 */
+	protected final void returnDouble(DatumKey<Double> key, double datum) {
+		returnBits(key, DatumStore.DOUBLE, Double.doubleToRawLongBits(datum));
+	}
+
+	/**
+	 * Returns the long datum with the given name to the overseer's cache.
+	 *
+	 * @see #returnDouble(String, double)
+	 */
+	protected final void returnLong(String datumName, long datum) {
+		returnBits(datumName, DatumStore.LONG, datum);
+	}
+
+	/**
+	 * Returns the long datum of the given key to the overseer's cache, by its slot rather than its name.
+	 *
+	 * @see #returnDouble(String, double)
+	 */
+	protected final void returnLong(DatumKey<Long> key, long datum) {
+		returnBits(key, DatumStore.LONG, datum);
+	}
+
+	/**
+	 * Returns the int datum with the given name to the overseer's cache.
+	 *
+	 * @see #returnDouble(String, double)
+	 */
+	protected final void returnInt(String datumName, int datum) {
+		returnBits(datumName, DatumStore.INT, datum);
+	}
+
+	/**
+	 * Returns the int datum of the given key to the overseer's cache, by its slot rather than its name.
+	 *
+	 * @see #returnDouble(String, double)
+	 */
+	protected final void returnInt(DatumKey<Integer> key, int datum) {
+		returnBits(key, DatumStore.INT, datum);
+	}
+
+	private void returnBits(String datumName, Object kind, long bits) {
+		Overseer overseer = requireOverseer();
+		returnBits(overseer, overseer.plan.slotOf(datumName), datumName, kind, bits);
+	}
+
+	private void returnBits(DatumKey<?> key, Object kind, long bits) {
+		Overseer overseer = requireOverseer();
+		returnBits(overseer, key.slotIn(overseer.plan), key.getName(), kind, bits);
+	}
+
+	private void returnBits(Overseer overseer, int slot, String datumName, Object kind, long bits) {
+		if (slot == -1) {
+			throw new NullPointerException("No output node is associated with datum " + datumName + "!");
+		}
+		Node node = overseer.plan.nodes[overseer.plan.nodeOfSlot[slot]];
+		if (node instanceof DiscreteNode && ATTEMPT.get() == null && getOutputNodes().contains(node)) {
+			((DiscreteNode) node).addPrimitive(slot, kind, bits);
+		} else { // other nodes, and hedged attempts, take objects
+			returnDatum(node, datumName, DatumStore.box(kind, bits));
+		}
+	}
+
+	private void returnDatum(Node node, String datumName, Object datum) {
 		if (getOutputNodes().contains(node)) {
-			node.addDatum(datumName, datum);
+			Map<String, Object> attempt = ATTEMPT.get();
+			if (attempt != null) {
+				attempt.put(datumName, datum); // returned by the overseer if this attempt wins
+			} else {
+				node.addDatum(datumName, datum);
+			}
 		} else {
 			throw new IllegalArgumentException(
 					"Arc " + this + " cannot return datum " + datumName + " because it is not an output of this arc!");
@@ -185,6 +438,16 @@ public abstract class Arc implements Primable {
 	 * @see #getDatum(String)
 	 */
 	protected void alias(String name, String alias) {
+		if (inputFields != null && inputFields == binder.inputIndex) { // copied before the first alias
+			inputFields = new StrictHashMap<>();
+			inputFields.putAll(binder.inputIndex);
+			inputDatumNames = inputFields.keySet();
+		}
+		if (outputFields != null && outputFields == binder.outputIndex) {
+			outputFields = new StrictHashMap<>();
+			outputFields.putAll(binder.outputIndex);
+			outputDatumNames = outputFields.keySet();
+		}
 		if (inputFields.containsKey(name)) {
 			inputFields.put(alias, inputFields.remove(name));
 			return;
@@ -196,37 +459,85 @@ public abstract class Arc implements Primable {
 		throw new IllegalArgumentException("No Input or Output with name " + name + " exists!");
 	}
 
-	private void autoFill() {
-		for (Map.Entry<String, Field> inputEntry : inputFields.entrySet()) {
-			String datumName = inputEntry.getKey();
-			Field field = inputEntry.getValue();
-			Object datum = getDatum(datumName);
-			field.setAccessible(true);
-			try {
-				field.set(this, datum);
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
+	// arrays of inputs and outputs are indexed like the fields in the binder
+
+	private Object[] readInputs() {
+		Object[] inputs = new Object[binder.inputKinds.length];
+		for (Map.Entry<String, Integer> entry : inputFields.entrySet()) {
+			inputs[entry.getValue()] = getDatum(entry.getKey());
+		}
+		return inputs;
+	}
+
+	private void autoFill(Object[] inputs) {
+		for (int i : inputFields.values()) {
+			binder.set(this, i, inputs[i]);
+		}
+	}
+
+	private Object[] readOutputs() {
+		Object[] outputs = new Object[binder.outputKinds.length];
+		for (int i : outputFields.values()) {
+			outputs[i] = binder.get(this, i);
+		}
+		return outputs;
+	}
+
+	private void fillInputs() {
+		for (Map.Entry<String, Integer> entry : inputFields.entrySet()) {
+			int i = entry.getValue();
+			Object kind = binder.inputKinds[i];
+			if (kind == DatumStore.DOUBLE) {
+				binder.setDouble(this, i, getDouble(entry.getKey()));
+			} else if (kind == DatumStore.LONG) {
+				binder.setLong(this, i, getLong(entry.getKey()));
+			} else if (kind == DatumStore.INT) {
+				binder.setInt(this, i, getInt(entry.getKey()));
+			} else {
+				binder.set(this, i, getDatum(entry.getKey()));
+			}
+		}
+	}
+
+	private void readOutputs(Object[] outputs, long[] bits) {
+		for (int i : outputFields.values()) {
+			Object kind = binder.outputKinds[i];
+			if (kind == DatumStore.DOUBLE) {
+				bits[i] = Double.doubleToRawLongBits(binder.getDouble(this, i));
+			} else if (kind == DatumStore.LONG) {
+				bits[i] = binder.getLong(this, i);
+			} else if (kind == DatumStore.INT) {
+				bits[i] = binder.getInt(this, i);
+			} else {
+				outputs[i] = binder.get(this, i);
 			}
 		}
 	}
 
-	private void autoReturn() {
-		for (Map.Entry<String, Field> outputEntry : outputFields.entrySet()) {
-			String datumName = outputEntry.getKey();
-			Field field = outputEntry.getValue();
-			Object datum;
-			field.setAccessible(true);
-			try {
-				datum = field.get(this);
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
+	private void returnOutputs(Object[] outputs, long[] bits) {
+		for (Map.Entry<String, Integer> entry : outputFields.entrySet()) {
+			int i = entry.getValue();
+			Object kind = binder.outputKinds[i];
+			if (kind == null) {
+				returnDatum(entry.getKey(), outputs[i]);
+			} else {
+				returnBits(entry.getKey(), kind, bits[i]);
 			}
-			returnDatum(datumName, datum);
 		}
 	}
 
+	private void autoReturn(Object[] outputs) {
+		for (Map.Entry<String, Integer> entry : outputFields.entrySet()) {
+			returnDatum(entry.getKey(), outputs[entry.getValue()]);
+		}
+	}
+
+	/**
+	 * @return the status of this arc, or {@link ArcStatus#IDLE} if the arc is not primed with an overseer
+	 */
 	public ArcStatus getStatus() {
-		return status;
+		Overseer overseer = getOverseer();
+		return overseer == null ? ArcStatus.IDLE : overseer.getStatus(this);
 	}
 
 	/**
@@ -238,31 +549,13 @@ public abstract class Arc implements Primable {
 	 * @throws NullPointerException     if the status is null
 	 * @throws IllegalStateException    if the arc is already finished
 	 * @throws IllegalArgumentException if the arc is safe and the status is less than the current status
+	 * @throws IllegalStateException    if the arc is not primed with an overseer
 	 */
-	protected synchronized void setStatus(ArcStatus status) {
+	protected void setStatus(ArcStatus status) {
 		if (status == null) {
 			throw new NullPointerException("Status cannot be null!");
 		}
-		if (status == this.status) return; // no change don't do anything
-		if (this.status == ArcStatus.FINISHED) {
-			throw new IllegalStateException("Arc " + this + " is already finished!");
-		}
-		if (safe && status.stage() < this.status.stage()) {
-			throw new IllegalArgumentException(
-					"Safe arc " + this + " cannot be set to " + status + " from " + this.status + "!");
-		}
-
-		this.status = status;
-		if (this.status == ArcStatus.IN_PROGRESS && startTime == -1) {
-			startTime = System.nanoTime();
-		} else if (this.status == ArcStatus.FINISHED) {
-			endTime = System.nanoTime();
-		}
-	}
-
-	synchronized int getOutputNodesRemaining() { // this can determine if there are no more undone output nodes in O(n) time
-		outputNodesRemaining.removeIf((node) -> node.getProgress() == 1);
-		return outputNodesRemaining.size();
+		requireOverseer().setStatus(this, status);
 	}
 
 	public String getName() {
@@ -292,11 +585,134 @@ public abstract class Arc implements Primable {
 		return safe;
 	}
 
+	/**
+	 * A blocking arc spends most of its time waiting on I/O. Parallel overseers run blocking arcs on virtual threads.
+	 *
+	 * @return true if this arc is blocking
+	 * @see Blocking
+	 */
+	public boolean isBlocking() {
+		return blocking;
+	}
+
+	/**
+	 * Default: {@code true} if the class of this arc is annotated with {@link Blocking}, {@code false} otherwise
+	 *
+	 * @param blocking whether this arc spends most of its time waiting on I/O and should be run on a virtual thread
+	 * @see Overseer#setVirtualThreads(boolean)
+	 */
+	public void setBlocking(boolean blocking) {
+		this.blocking = blocking;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	/**
+	 * Default: {@code -1}, i.e. unknown
+	 * <p>
+	 * A hint of how long this arc takes to run, used by critical-path scheduling. Takes precedence over the
+	 * {@link BurstHistory} of the overseer.
+	 *
+	 * @param cost the estimated run time of this arc in nanoseconds, or -1 if unknown
+	 * @throws IllegalArgumentException if the cost is negative and not -1
+	 * @see Overseer#setCriticalPathScheduling(boolean)
+	 */
+	public void setCost(double cost) {
+		if (cost < 0 && cost != -1) {
+			throw new IllegalArgumentException("Cost " + cost + " cannot be negative!");
+		}
+		this.cost = cost;
+	}
+
+	public Resource getResource() {
+		return resource;
+	}
+
+	/**
+	 * Default: {@code null}
+	 * <p>
+	 * While all permits of the resource are taken, this arc is not run even if it is runnable.
+	 *
+	 * @param resource the shared resource this arc uses, or null if none
+	 */
+	public void setResource(Resource resource) {
+		this.resource = resource;
+	}
+
+	public Memo getMemo() {
+		return memo;
+	}
+
+	/**
+	 * Default: {@code null}
+	 * <p>
+	 * Only set a memo for arcs that are pure functions of their {@link Input} fields, as {@link #run()} is skipped
+	 * whenever outputs for equal inputs are found in the memo.
+	 *
+	 * @param memo the memo to store the outputs of this arc in, or null for none
+	 * @throws IllegalArgumentException if this arc has no {@link Output} fields
+	 */
+	public void setMemo(Memo memo) {
+		if (memo != null && (outputFields == null || outputFields.isEmpty())) {
+			throw new IllegalArgumentException("Arc " + this + " must have @Output fields to be memoized!");
+		}
+		this.memo = memo;
+	}
+
+	/**
+	 * @param timeUnit the time unit to return the timeout in
+	 * @return the timeout of this arc, or -1 if it has none
+	 */
+	public long getTimeout(TimeUnit timeUnit) {
+		return timeout == -1 ? -1 : timeUnit.convert(timeout, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Default: {@code -1}
+	 * <p>
+	 * If a run of this arc takes longer than the timeout, the overseer times out: no further arcs are run, the threads
+	 * running arcs are interrupted, and {@link Overseer#start()} throws an {@link OverseerTimeoutException}. Arcs that
+	 * do not block can poll {@link Overseer#isTimedOut()} to stop early.
+	 *
+	 * @param timeout  the timeout, or -1 for none
+	 * @param timeUnit the time unit of the timeout
+	 * @throws IllegalArgumentException if the timeout is negative and not -1
+	 */
+	public void setTimeout(long timeout, TimeUnit timeUnit) {
+		if (timeout < 0 && timeout != -1) {
+			throw new IllegalArgumentException("Timeout " + timeout + " cannot be negative!");
+		}
+		this.timeout = timeout == -1 ? -1 : timeUnit.toNanos(timeout);
+	}
+
+	public Hedge getHedge() {
+		return hedge;
+	}
+
+	/**
+	 * Default: {@code null}
+	 * <p>
+	 * Only hedge arcs that are idempotent, as {@link #run()} may be called twice at once, with the second call
+	 * interrupted once the first returns.
+	 *
+	 * @param hedge the policy to hedge the runs of this arc with, or null for none
+	 * @throws IllegalArgumentException if this arc is not an {@link AutoArc}, or has {@link Input} or {@link Output}
+	 *                                  fields that concurrent runs would share
+	 */
+	public void setHedge(Hedge hedge) {
+		if (hedge != null && (!(this instanceof AutoArc) || inputFields != null && !inputFields.isEmpty() ||
+				outputFields != null && !outputFields.isEmpty())) {
+			throw new IllegalArgumentException(
+					"Arc " + this + " must be an AutoArc without @Input or @Output fields to be hedged!");
+		}
+		this.hedge = hedge;
+	}
+
 	@Override
 	public void primeWith(Overseer overseer) { // aka initialize
 		this.overseer = overseer;
-		link = overseer.g.arcMap.get(this);
-		outputNodesRemaining = new HashSet<>(link.getOutputNodes());
 	}
 
 	/**
@@ -366,20 +782,22 @@ public abstract class Arc implements Primable {
 	}
 
 	public long getStartTime() {
-		return startTime;
+		Overseer overseer = getOverseer();
+		return overseer == null ? -1 : overseer.getStartTime(this);
 	}
 
 	public long getEndTime() {
-		return endTime;
+		Overseer overseer = getOverseer();
+		return overseer == null ? -1 : overseer.getEndTime(this);
 	}
 
 	/**
-	 * Gets the link this arc is a part of. Only available after the arc is primed.
+	 * Gets the link this arc is a part of. Only available after the arc is primed or while it is being run.
 	 *
 	 * @return the link this arc is a part of
 	 */
 	protected Link getLink() {
-		return link;
+		return requireOverseer().getLink(this);
 	}
 
 	/**
@@ -388,7 +806,7 @@ public abstract class Arc implements Primable {
 	 * @return the dependencies of this arc
 	 */
 	protected Set<Node> getDependencies() {
-		return link.getDependencies();
+		return getLink().getDependencies();
 	}
 
 	/**
@@ -397,7 +815,7 @@ public abstract class Arc implements Primable {
 	 * @return the output nodes of this arc
 	 */
 	protected Set<Node> getOutputNodes() {
-		return link.getOutputNodes();
+		return getLink().getOutputNodes();
 	}
 
 	/**
@@ -406,25 +824,39 @@ public abstract class Arc implements Primable {
 	 * @return the output node of this arc
 	 */
 	protected Node getOutputNode() {
-		return link.getOutputNode();
+		return getLink().getOutputNode();
 	}
 
+	/**
+	 * Returns the overseer running on the current thread if this arc is in its graph, or else the overseer this arc was
+	 * primed with.
+	 *
+	 * @return the overseer of this arc, or null if there is none
+	 */
 	protected Overseer getOverseer() {
+		if (original != null) return overseer; // a copy is only used by the overseer running it
+		Overseer current = Overseer.current();
+		if (current != null && current.plan.indexOf(this) != -1) {
+			return current;
+		}
+		return overseer;
+	}
+
+	private Overseer requireOverseer() {
+		Overseer overseer = getOverseer();
+		if (overseer == null) {
+			throw new IllegalStateException("Arc " + this + " is not primed with an overseer!");
+		}
 		return overseer;
 	}
 
 	/**
 	 * Resets the arc to its initial state. If you declare any persistent fields in an arc, you should override this and
-	 * provide a way to reset them.
+	 * provide a way to reset them. The status of the arc is reset by {@link Overseer#resetGraph()}.
 	 */
 	@Override
 	public void reset() {
 		overseer = null;
-		status = ArcStatus.IDLE;
-		link = null;
-		startTime = -1;
-		endTime = -1;
-		outputNodesRemaining = null;
 	}
 
 	@Override
@@ -434,7 +866,9 @@ public abstract class Arc implements Primable {
 
 	@Override
 	public String toString() {
-		if (name == null) {
+		if (original != null) {
+			return original.toString();
+		} else if (name == null) {
 			return super.toString();
 		} else {
 			return name;
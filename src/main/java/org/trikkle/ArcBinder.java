@@ -0,0 +1,178 @@
+package org.trikkle;
+
+import org.trikkle.annotations.Input;
+import org.trikkle.annotations.Output;
+import org.trikkle.structs.StrictHashMap;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fills the {@link Input} fields and reads the {@link Output} fields of the arcs of one class. Binders are generated
+ * at compile time by {@link org.trikkle.annotations.processing.BinderProcessor} as plain field assignments, and are
+ * found by the name of the arc class. Arcs whose binder was not generated, such as anonymous arcs, are bound by
+ * reflection instead. Either way, the fields of a class are only looked up once, when the first arc of the class is
+ * constructed.
+ * <p>
+ * Fields are identified by their index among the inputs or outputs, in the order they are declared.
+ *
+ * @since 0.1.0
+ */
+public abstract class ArcBinder {
+	/**
+	 * The suffix of the name of a generated binder, see {@link #binderNameOf(String)}.
+	 */
+	public static final String SUFFIX = "_Binder";
+	// the binder of classes without annotated fields
+	private static final ArcBinder NONE = new ReflectiveBinder(Arc.class, new Field[0], new Field[0]);
+	private static final ClassValue<ArcBinder> BINDERS = new ClassValue<>() {
+		@Override
+		protected ArcBinder computeValue(Class<?> type) {
+			try {
+				Class<?> generated = Class.forName(binderNameOf(type), true, type.getClassLoader());
+				if (ArcBinder.class.isAssignableFrom(generated)) {
+					ArcBinder binder = (ArcBinder) generated.getDeclaredConstructor().newInstance();
+					if (binder.arcClass == type) return binder; // else a class that happens to have the name
+				}
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// not generated, e.g. an anonymous arc or one compiled without the processor
+			}
+			ArcBinder binder = ReflectiveBinder.of(type);
+			return binder == null ? NONE : binder;
+		}
+	};
+
+	private final Class<?> arcClass;
+	final Map<String, Integer> inputIndex, outputIndex; // by the default datum names
+	final Object[] inputKinds, outputKinds; // see DatumStore#kindOf(Class)
+
+	/**
+	 * @param arcClass    the arc class whose fields are bound
+	 * @param inputNames  the datum names of the input fields, by index
+	 * @param inputTypes  the types of the input fields, by index
+	 * @param outputNames the datum names of the output fields, by index
+	 * @param outputTypes the types of the output fields, by index
+	 * @throws IllegalArgumentException if two inputs or two outputs have the same datum name
+	 */
+	protected ArcBinder(Class<?> arcClass, String[] inputNames, Class<?>[] inputTypes, String[] outputNames,
+	                    Class<?>[] outputTypes) {
+		this.arcClass = arcClass;
+		inputIndex = indexOf(inputNames);
+		outputIndex = indexOf(outputNames);
+		inputKinds = kindsOf(inputTypes);
+		outputKinds = kindsOf(outputTypes);
+	}
+
+	private static Map<String, Integer> indexOf(String[] names) {
+		Map<String, Integer> index = new StrictHashMap<>();
+		for (int i = 0; i < names.length; i++) {
+			index.put(names[i], i);
+		}
+		return Collections.unmodifiableMap(index);
+	}
+
+	private static Object[] kindsOf(Class<?>[] types) {
+		Object[] kinds = new Object[types.length];
+		for (int i = 0; i < types.length; i++) {
+			kinds[i] = DatumStore.kindOf(types[i]);
+		}
+		return kinds;
+	}
+
+	/**
+	 * @return the binder of the arc class, or null if it has no {@link Input} or {@link Output} fields
+	 */
+	static ArcBinder of(Class<?> type) {
+		ArcBinder binder = BINDERS.get(type);
+		return binder == NONE ? null : binder;
+	}
+
+	/**
+	 * @return the arc class whose fields this binder binds
+	 */
+	public Class<?> getArcClass() {
+		return arcClass;
+	}
+
+	/**
+	 * @return the binary name of the generated binder of the arc class
+	 * @see #binderNameOf(String)
+	 */
+	public static String binderNameOf(Class<?> type) {
+		return binderNameOf(type.getName());
+	}
+
+	/**
+	 * The binder is in the package of the arc class, and named after the rest of its binary name with {@code _}
+	 * replaced by {@code _1} and {@code $} by {@code __}, followed by {@link #SUFFIX}. As every {@code _} of the name
+	 * of the arc class is escaped, no two arc classes are given the same binder name, e.g. {@code Foo$Bar} is bound by
+	 * {@code Foo__Bar_Binder} and {@code Foo_Bar} by {@code Foo_1Bar_Binder}.
+	 *
+	 * @param binaryName the binary name of the arc class
+	 * @return the binary name of the generated binder of the arc class
+	 */
+	public static String binderNameOf(String binaryName) {
+		int dot = binaryName.lastIndexOf('.');
+		return binaryName.substring(0, dot + 1) +
+				binaryName.substring(dot + 1).replace("_", "_1").replace("$", "__") + SUFFIX;
+	}
+
+	/**
+	 * Sets an input field. Datums of primitive fields are unboxed, and widened like
+	 * {@link java.lang.reflect.Field#set(Object, Object)} would.
+	 */
+	protected abstract void set(Arc arc, int input, Object datum);
+
+	protected void setDouble(Arc arc, int input, double datum) {
+		set(arc, input, datum);
+	}
+
+	protected void setLong(Arc arc, int input, long datum) {
+		set(arc, input, datum);
+	}
+
+	protected void setInt(Arc arc, int input, int datum) {
+		set(arc, input, datum);
+	}
+
+	/**
+	 * Gets an output field, boxing it if it is primitive.
+	 */
+	protected abstract Object get(Arc arc, int output);
+
+	protected double getDouble(Arc arc, int output) {
+		return (Double) get(arc, output);
+	}
+
+	protected long getLong(Arc arc, int output) {
+		return (Long) get(arc, output);
+	}
+
+	protected int getInt(Arc arc, int output) {
+		return (Integer) get(arc, output);
+	}
+
+	protected static double asDouble(Object datum) {
+		return Double.longBitsToDouble(DatumStore.bitsOf(DatumStore.DOUBLE, datum));
+	}
+
+	protected static long asLong(Object datum) {
+		return DatumStore.bitsOf(DatumStore.LONG, datum);
+	}
+
+	protected static int asInt(Object datum) {
+		return (int) DatumStore.bitsOf(DatumStore.INT, datum);
+	}
+
+	protected static float asFloat(Object datum) {
+		if (datum instanceof Float) return (Float) datum;
+		if (datum instanceof Character) return (Character) datum;
+		if (datum instanceof Long) return (Long) datum;
+		return asInt(datum);
+	}
+
+	protected static short asShort(Object datum) {
+		return datum instanceof Byte ? (Byte) datum : (Short) datum;
+	}
+}
@@ -26,7 +26,12 @@ public abstract class AutoArc extends Arc {
 	@Override
 	void runWrapper() {
 		setStatus(ArcStatus.IN_PROGRESS);
-		super.runWrapper();
+		Hedge hedge = getHedge();
+		if (hedge == null) {
+			super.runWrapper();
+		} else {
+			getOverseer().runHedged(this, hedge);
+		}
 		setStatus(ArcStatus.FINISHED);
 	}
 }
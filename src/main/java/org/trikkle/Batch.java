@@ -0,0 +1,236 @@
+package org.trikkle;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs one {@link Plan} over many records, i.e. many maps of starting datums, in a single execution. Each record gets
+ * a lightweight {@link Overseer} of its own to hold its cache and run state, but no overseer ever ticktocks. Instead,
+ * the batch goes through the arcs of the plan in topological order and runs each arc for every record that is ready
+ * for it. A {@link BatchArc} is run only once per batch, with a column holding the inputs of every ready record.
+ * <p>
+ * If the batch is parallel ({@link #setParallel(boolean)}), the records that are ready for an arc are split into one
+ * chunk per thread of the executor, and the chunks are run at once, one of them on the calling thread. The batch waits
+ * for every chunk before it moves on to the next arc. Otherwise, every arc is run on the calling thread.
+ * <p>
+ * An arc that uses a {@link Resource} takes one of its permits for each run, waiting for one if none is available. A
+ * {@link BatchArc} therefore takes a single permit for all of its rows.
+ * <p>
+ * Only plans made of {@link AutoArc}s and without cycles or {@link StreamNode}s can be run this way. Any other plan is
+ * run with one ordinary overseer per record, started with {@link Overseer#startAsync()} on the default executor.
+ * <p>
+ * A batch may be run any number of times, including concurrently.
+ *
+ * @see BatchArc
+ * @see Plan
+ * @since 0.1.0
+ */
+public final class Batch {
+	private final Plan plan;
+	private final boolean columnar;
+	private boolean parallel = true;
+	private Executor executor = Overseer.defaultExecutor();
+
+	/**
+	 * Creates a batch runner for the given plan.
+	 *
+	 * @param plan the plan to run
+	 * @throws NullPointerException if the plan is null
+	 */
+	public Batch(Plan plan) {
+		if (plan == null) {
+			throw new NullPointerException("Plan cannot be null!");
+		}
+		this.plan = plan;
+		this.columnar = isColumnar(plan);
+	}
+
+	private static boolean isColumnar(Plan plan) {
+		if (plan.isCyclic()) return false;
+		for (Arc arc : plan.arcs) {
+			if (!(arc instanceof AutoArc)) return false;
+		}
+		for (Node node : plan.nodes) {
+			if (node instanceof StreamNode) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the arcs of the plan are run arc by arc over every record. If false, each record is run by an
+	 * ordinary overseer instead.
+	 */
+	public boolean isColumnar() {
+		return columnar;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Default: {@code true}
+	 *
+	 * @param parallel whether to run the records that are ready for an arc in parallel chunks on the executor, rather
+	 *                 than one after another on the calling thread. Only applies to columnar batches.
+	 * @see #isColumnar()
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Default: the default executor of overseers, see {@link Overseer#setExecutor(Executor)}
+	 * <p>
+	 * Columnar batches run their chunks on this executor, one per thread of the executor if it is a
+	 * {@link ForkJoinPool}, or else one per available processor. Otherwise, the overseer of every record runs its arcs
+	 * on it.
+	 *
+	 * @param executor the executor to run records on
+	 * @throws NullPointerException if the executor is null
+	 */
+	public void setExecutor(Executor executor) {
+		if (executor == null) {
+			throw new NullPointerException("Executor cannot be null!");
+		}
+		this.executor = executor;
+	}
+
+	/**
+	 * Runs the plan over every record.
+	 *
+	 * @param records the starting datums of every record
+	 * @return the result cache ({@link Overseer#getResultCache()}) of every record, in the same order as the records
+	 * @throws IllegalStateException if the starting nodes of a record are not fully populated
+	 * @throws IllegalStateException if a record does not reach the end of the plan
+	 */
+	public List<Map<String, Object>> run(List<Map<String, Object>> records) {
+		List<Overseer> overseers = new ArrayList<>(records.size());
+		for (Map<String, Object> record : records) {
+			Overseer overseer = new Overseer(plan);
+			overseer.setExecutor(executor);
+			overseer.fillStartingDatums(record);
+			overseers.add(overseer);
+		}
+		return columnar ? runColumnar(overseers) : runEach(overseers);
+	}
+
+	private List<Map<String, Object>> runColumnar(List<Overseer> overseers) {
+		for (Overseer overseer : overseers) {
+			overseer.startDriven();
+		}
+
+		List<Overseer> ready = new ArrayList<>();
+		for (int a : plan.topologicalOrder) {
+			ready.clear();
+			for (Overseer overseer : overseers) {
+				if (!overseer.hasEnded() && overseer.isReady(a)) {
+					ready.add(overseer);
+				}
+			}
+			if (ready.isEmpty()) continue;
+
+			Arc arc = plan.arcs[a];
+			if (arc instanceof BatchArc) {
+				runBatchArc((BatchArc) arc, a, ready);
+			} else {
+				runChunks(arc, ready);
+			}
+		}
+
+		List<Map<String, Object>> results = new ArrayList<>(overseers.size());
+		for (Overseer overseer : overseers) {
+			results.add(overseer.endDriven());
+		}
+		return results;
+	}
+
+	/**
+	 * Runs the arc for every ready record, in parallel chunks if this batch is parallel. If the arc throws for some
+	 * records, every chunk is still waited for, and the first exception is thrown.
+	 */
+	private void runChunks(Arc arc, List<Overseer> ready) {
+		int size = ready.size();
+		int chunks = parallel ? Math.min(size, executor instanceof ForkJoinPool ?
+				((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors()) : 1;
+		List<CompletableFuture<Void>> futures = new ArrayList<>(chunks - 1);
+		for (int c = 1; c < chunks; c++) {
+			List<Overseer> chunk = ready.subList(c * size / chunks, (c + 1) * size / chunks);
+			futures.add(CompletableFuture.runAsync(() -> runChunk(arc, chunk), executor));
+		}
+
+		Throwable failure = null;
+		try {
+			runChunk(arc, ready.subList(0, size / chunks));
+		} catch (RuntimeException | Error e) {
+			failure = e;
+		}
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				Overseer.join(future);
+			} catch (RuntimeException | Error e) {
+				if (failure == null) failure = e;
+			}
+		}
+		if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+		if (failure != null) throw (Error) failure;
+	}
+
+	private static void runChunk(Arc arc, List<Overseer> chunk) {
+		for (Overseer overseer : chunk) {
+			overseer.runDriven(arc);
+		}
+	}
+
+	private void runBatchArc(BatchArc arc, int a, List<Overseer> ready) {
+		int rows = ready.size();
+		Map<String, List<Object>> inputs = new HashMap<>();
+		for (int n : plan.dependencies[a]) {
+			for (String datumName : plan.nodes[n].datumNames) {
+				List<Object> column = new ArrayList<>(rows);
+				for (Overseer overseer : ready) {
+					column.add(overseer.getCache().get(datumName));
+				}
+				inputs.put(datumName, column);
+			}
+		}
+
+		for (Overseer overseer : ready) {
+			overseer.setStatus(arc, ArcStatus.IN_PROGRESS);
+		}
+		Resource resource = arc.getResource();
+		if (resource != null) resource.acquire();
+		Map<String, List<Object>> columns;
+		try {
+			columns = arc.runBatch(inputs, rows);
+		} finally {
+			if (resource != null) resource.release();
+		}
+		Map<String, List<Object>> outputs = arc.checkRows(columns, rows);
+		for (int row = 0; row < rows; row++) {
+			Overseer overseer = ready.get(row);
+			int finalRow = row;
+			overseer.runBound(() -> arc.returnRow(outputs, finalRow));
+			overseer.setStatus(arc, ArcStatus.FINISHED);
+		}
+	}
+
+	private List<Map<String, Object>> runEach(List<Overseer> overseers) {
+		List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(overseers.size());
+		for (Overseer overseer : overseers) {
+			futures.add(overseer.startAsync());
+		}
+
+		List<Map<String, Object>> results = new ArrayList<>(overseers.size());
+		for (CompletableFuture<Map<String, Object>> future : futures) {
+			results.add(Overseer.join(future));
+		}
+		return results;
+	}
+}
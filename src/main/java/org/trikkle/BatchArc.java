@@ -0,0 +1,70 @@
+package org.trikkle;
+
+import java.util.*;
+
+/**
+ * An auto arc that processes a whole column of inputs at once. When its graph is run by a {@link Batch}, the arc is
+ * run once for all records of the batch instead of once per record, which amortizes per-record overhead and allows
+ * vectorized code. When run by an ordinary {@link Overseer}, the arc is given columns of one row.
+ * <p>
+ * The input columns hold the datums of the dependencies of the arc, and the output columns must hold the datums of
+ * its output nodes. Every column has one row per record, in the same order.
+ * <p>
+ * A batch run takes one permit of the {@link Resource} of the arc, if it has one, however many rows it has.
+ *
+ * @see Batch
+ * @since 0.1.0
+ */
+public abstract class BatchArc extends AutoArc {
+	/**
+	 * Create a batch arc.
+	 */
+	public BatchArc() {
+		super();
+	}
+
+	/**
+	 * Create a batch arc with the given name.
+	 *
+	 * @param name the name of the arc
+	 */
+	public BatchArc(String name) {
+		super(name);
+	}
+
+	/**
+	 * Override this method to specify what to do with a column of inputs.
+	 *
+	 * @param inputs the column of each input datum by datum name
+	 * @param rows   the number of rows in every column
+	 * @return the column of each output datum by datum name. Every column must have {@code rows} rows.
+	 */
+	protected abstract Map<String, List<Object>> runBatch(Map<String, List<Object>> inputs, int rows);
+
+	@Override
+	protected final void run() {
+		Map<String, List<Object>> inputs = new HashMap<>();
+		for (Node dependency : getDependencies()) {
+			for (String datumName : dependency.datumNames) {
+				inputs.put(datumName, Collections.singletonList(getDatum(datumName)));
+			}
+		}
+		returnRow(checkRows(runBatch(inputs, 1), 1), 0);
+	}
+
+	Map<String, List<Object>> checkRows(Map<String, List<Object>> outputs, int rows) {
+		for (Map.Entry<String, List<Object>> entry : outputs.entrySet()) {
+			if (entry.getValue().size() != rows) {
+				throw new IllegalStateException("Output column " + entry.getKey() + " of arc " + this + " has " +
+						entry.getValue().size() + " rows instead of " + rows + "!");
+			}
+		}
+		return outputs;
+	}
+
+	void returnRow(Map<String, List<Object>> outputs, int row) {
+		for (Map.Entry<String, List<Object>> entry : outputs.entrySet()) {
+			returnDatum(entry.getKey(), entry.getValue().get(row));
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package org.trikkle;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A record of how long arcs took to run in past executions, used by the overseer to estimate the cost of each arc for
+ * critical-path scheduling. Every burst time recorded for an arc is folded into an exponential moving average, so the
+ * estimate follows changes in the workload without being thrown off by a single outlier. The most recent burst times
+ * of each arc are also kept, for percentiles such as those used by {@link Hedge}.
+ * <p>
+ * Named arcs are identified by their {@link Arc#getName()}, so arcs of the same name share a history, and only they
+ * are written by {@link #store(Writer)}. Unnamed arcs are identified by identity, and their history is dropped once
+ * the arc is garbage collected. Only the averages are stored, not the recent burst times.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Overseer#setBurstHistory(BurstHistory)
+ * @see Overseer#getBurstTimes(java.util.concurrent.TimeUnit)
+ * @since 0.1.0
+ */
+public final class BurstHistory {
+	private static final double WEIGHT = 0.25; // weight of the newest burst time in the moving average
+	private static final int SAMPLES = 100; // number of recent burst times kept per arc
+	private final Map<String, Entry> named = new ConcurrentHashMap<>();
+	private final Map<ArcKey, Entry> unnamed = new ConcurrentHashMap<>();
+	private final ReferenceQueue<Arc> collected = new ReferenceQueue<>(); // of the keys of unnamed arcs
+
+	/**
+	 * Records the burst time of an arc.
+	 *
+	 * @param arc       the arc
+	 * @param burstTime the time the arc took to run in nanoseconds
+	 * @throws IllegalArgumentException if the burst time is negative
+	 */
+	public void record(Arc arc, long burstTime) {
+		if (burstTime < 0) {
+			throw new IllegalArgumentException("Burst time " + burstTime + " cannot be negative!");
+		}
+		String name = arc.getName();
+		Entry entry;
+		if (name != null) {
+			entry = named.computeIfAbsent(name, key -> new Entry());
+		} else {
+			for (Reference<? extends Arc> key; (key = collected.poll()) != null; ) {
+				unnamed.remove(key);
+			}
+			entry = unnamed.computeIfAbsent(new ArcKey(arc, collected), key -> new Entry());
+		}
+		entry.add(burstTime);
+	}
+
+	private Entry entryOf(Arc arc) {
+		String name = arc.getName();
+		return name != null ? named.get(name) : unnamed.get(new ArcKey(arc, null));
+	}
+
+	/**
+	 * @param arc        the arc
+	 * @param percentile the percentile, between 0 and 1
+	 * @return the given percentile of the recent burst times of the arc in nanoseconds, or -1 if none were recorded
+	 * @throws IllegalArgumentException if the percentile is not between 0 and 1
+	 */
+	public long getPercentile(Arc arc, double percentile) {
+		if (percentile < 0 || percentile > 1) {
+			throw new IllegalArgumentException("Percentile " + percentile + " not between 0 and 1!");
+		}
+		Entry entry = entryOf(arc);
+		return entry == null ? -1 : entry.percentile(percentile);
+	}
+
+	/**
+	 * @param arc the arc
+	 * @return the number of recent burst times kept for the arc, at most 100
+	 */
+	public int getSampleCount(Arc arc) {
+		Entry entry = entryOf(arc);
+		return entry == null ? 0 : entry.count();
+	}
+
+	/**
+	 * @param arc the arc
+	 * @return the average burst time of the arc in nanoseconds, or -1 if it has never been recorded
+	 */
+	public double getAverage(Arc arc) {
+		Entry entry = entryOf(arc);
+		return entry == null ? -1 : entry.average();
+	}
+
+	/**
+	 * Writes the averages of the named arcs of this history as a properties file.
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void store(Writer writer) throws IOException {
+		Properties properties = new Properties();
+		for (Map.Entry<String, Entry> entry : named.entrySet()) {
+			double average = entry.getValue().average();
+			if (average != -1) properties.setProperty(entry.getKey(), String.valueOf(average));
+		}
+		properties.store(writer, "Trikkle burst history in nanoseconds");
+	}
+
+	/**
+	 * Reads a history written by {@link #store(Writer)}.
+	 *
+	 * @param reader the reader to read from
+	 * @return the history
+	 * @throws IOException              if reading fails
+	 * @throws IllegalArgumentException if an average is not a number
+	 */
+	public static BurstHistory load(Reader reader) throws IOException {
+		Properties properties = new Properties();
+		properties.load(reader);
+		BurstHistory history = new BurstHistory();
+		for (String name : properties.stringPropertyNames()) {
+			String value = properties.getProperty(name);
+			Entry entry = new Entry();
+			try {
+				entry.average = Double.parseDouble(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Burst time " + value + " of arc " + name + " is not a number!", e);
+			}
+			history.named.put(name, entry);
+		}
+		return history;
+	}
+
+	/**
+	 * A weak reference to an unnamed arc, equal to the references to the same arc.
+	 */
+	private static final class ArcKey extends WeakReference<Arc> {
+		private final int hash;
+
+		ArcKey(Arc arc, ReferenceQueue<Arc> queue) {
+			super(arc, queue);
+			hash = System.identityHashCode(arc);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof ArcKey)) return false;
+			Arc arc = get();
+			return arc != null && arc == ((ArcKey) o).get();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private static final class Entry { // the average and a ring of the most recent burst times of an arc
+		private final long[] ring = new long[SAMPLES];
+		private double average = -1;
+		private int count = 0, next = 0;
+
+		synchronized void add(long burstTime) {
+			average = average == -1 ? burstTime : (1 - WEIGHT) * average + WEIGHT * burstTime;
+			ring[next] = burstTime;
+			next = (next + 1) % SAMPLES;
+			if (count < SAMPLES) count++;
+		}
+
+		synchronized double average() {
+			return average;
+		}
+
+		synchronized int count() {
+			return count;
+		}
+
+		synchronized long percentile(double percentile) {
+			if (count == 0) return -1; // only an average was loaded
+			long[] sorted = Arrays.copyOf(ring, count);
+			Arrays.sort(sorted);
+			int rank = (int) Math.ceil(percentile * count) - 1; // nearest rank
+			return sorted[Math.max(rank, 0)];
+		}
+	}
+}
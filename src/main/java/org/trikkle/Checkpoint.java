@@ -0,0 +1,132 @@
+package org.trikkle;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A snapshot of a running overseer: the arcs that had finished, and the datums of the nodes that were complete. Taken
+ * periodically by overseers with a checkpoint file ({@link Overseer#setCheckpointFile(Path)}), or at any time with
+ * {@link Overseer#checkpoint()}. A new overseer of the same graph resumes from it with
+ * {@link Overseer#resume(Graph, Checkpoint)}, skipping the finished arcs.
+ * <p>
+ * Arcs are identified by their index in the plan, so the graph must be built from the same links in the same order.
+ * Reading the checkpoint does not check this, but resuming does.
+ *
+ * @since 0.1.0
+ */
+public final class Checkpoint {
+	private static final int MAGIC = 0x74726b31; // "trk1"
+	final long fingerprint;
+	final int[] finishedArcs;
+	private final Map<String, Object> cache;
+
+	private Checkpoint(long fingerprint, int[] finishedArcs, Map<String, Object> cache) {
+		this.fingerprint = fingerprint;
+		this.finishedArcs = finishedArcs;
+		this.cache = cache;
+	}
+
+	/**
+	 * Reads a checkpoint written by an overseer.
+	 *
+	 * @param file  the checkpoint file
+	 * @param codec the codec the datums were encoded with
+	 * @return the checkpoint
+	 * @throws IOException if the file cannot be read or is not a checkpoint, or a datum cannot be decoded
+	 */
+	public static Checkpoint read(Path file, DatumCodec codec) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("File " + file + " is not a checkpoint!");
+			}
+			long fingerprint = in.readLong();
+			int[] finishedArcs = new int[in.readInt()];
+			for (int i = 0; i < finishedArcs.length; i++) {
+				finishedArcs[i] = in.readInt();
+			}
+			int datumCount = in.readInt();
+			Map<String, Object> cache = new HashMap<>();
+			for (int i = 0; i < datumCount; i++) {
+				String datumName = in.readUTF();
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				cache.put(datumName, codec.decode(datumName, bytes));
+			}
+			return new Checkpoint(fingerprint, finishedArcs, cache);
+		}
+	}
+
+	/**
+	 * Writes a checkpoint, replacing the file only once the checkpoint is complete and on disk, so a crash while writing
+	 * leaves the previous checkpoint intact.
+	 */
+	static void write(Path file, Plan plan, boolean[] finished, Map<String, Object> cache, DatumCodec codec)
+			throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			out.writeInt(MAGIC);
+			out.writeLong(fingerprintOf(plan));
+			int finishedCount = 0;
+			for (boolean f : finished) {
+				if (f) finishedCount++;
+			}
+			out.writeInt(finishedCount);
+			for (int a = 0; a < finished.length; a++) {
+				if (finished[a]) out.writeInt(a);
+			}
+			out.writeInt(cache.size());
+			for (Map.Entry<String, Object> entry : cache.entrySet()) {
+				byte[] bytes = codec.encode(entry.getKey(), entry.getValue());
+				out.writeUTF(entry.getKey());
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			out.flush();
+			channel.force(true);
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return a hash of the structure of the plan, in the order of its arcs
+	 */
+	static long fingerprintOf(Plan plan) {
+		long hash = plan.arcCount();
+		for (int a = 0; a < plan.arcCount(); a++) {
+			hash = 31 * hash + plan.arcs[a].getClass().getName().hashCode();
+			hash = 31 * hash + datumNamesOf(plan, plan.dependencies[a]).hashCode();
+			hash = 31 * hash + datumNamesOf(plan, plan.outputNodes[a]).hashCode();
+		}
+		return hash;
+	}
+
+	private static Set<String> datumNamesOf(Plan plan, int[] nodes) {
+		Set<String> datumNames = new TreeSet<>();
+		for (int n : nodes) {
+			datumNames.addAll(plan.nodes[n].datumNames);
+		}
+		return datumNames;
+	}
+
+	/**
+	 * @return the datums of the nodes that were complete, by name
+	 */
+	public Map<String, Object> getCache() {
+		return Collections.unmodifiableMap(cache);
+	}
+
+	/**
+	 * @return the number of arcs that had finished
+	 */
+	public int getFinishedArcCount() {
+		return finishedArcs.length;
+	}
+}
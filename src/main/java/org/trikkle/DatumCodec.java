@@ -0,0 +1,51 @@
+package org.trikkle;
+
+import java.io.*;
+
+/**
+ * Encodes datums to bytes and decodes them back, for datums that outlive the overseer, such as those of a
+ * {@link Checkpoint}. Implementations can choose an encoding per datum name, e.g. a compact one for large arrays.
+ *
+ * @see Overseer#setCheckpointCodec(DatumCodec)
+ * @since 0.1.0
+ */
+public interface DatumCodec {
+	/**
+	 * Encodes datums with Java serialization. Every datum must be {@link Serializable}, or null.
+	 */
+	DatumCodec SERIALIZATION = new DatumCodec() {
+		@Override
+		public byte[] encode(String datumName, Object datum) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(datum);
+			}
+			return bytes.toByteArray();
+		}
+
+		@Override
+		public Object decode(String datumName, byte[] bytes) throws IOException {
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+				return in.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new InvalidClassException("Cannot decode datum " + datumName + ": " + e.getMessage());
+			}
+		}
+	};
+
+	/**
+	 * @param datumName the name of the datum
+	 * @param datum     the datum, which can be null
+	 * @return the encoded datum
+	 * @throws IOException if the datum cannot be encoded
+	 */
+	byte[] encode(String datumName, Object datum) throws IOException;
+
+	/**
+	 * @param datumName the name of the datum
+	 * @param bytes     the datum as returned by {@link #encode(String, Object)}
+	 * @return the decoded datum
+	 * @throws IOException if the datum cannot be decoded
+	 */
+	Object decode(String datumName, byte[] bytes) throws IOException;
+}
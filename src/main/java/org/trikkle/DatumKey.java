@@ -0,0 +1,58 @@
+package org.trikkle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A typed handle to a datum, minted with {@link Graph#keyOf(String, Class)} or {@link Nodespace#keyOf(String, Class)}.
+ * Arcs that read and return datums through keys ({@link Arc#getDatum(DatumKey)},
+ * {@link Arc#returnDatum(DatumKey, Object)}) get the datum's type checked at compile time instead of casting, and find
+ * the datum by its slot in the cache ({@link Plan}) instead of hashing its name. Every datum name is given a key id
+ * when its first key is minted, and each plan keeps the slots of the key ids it has been used with, so finding the slot
+ * is an array read. The slot of a key id is resolved the first time a key with that id is used with the plan.
+ * <p>
+ * Keys are immutable, and can be shared by any number of arcs, overseers, plans and threads.
+ *
+ * @param <T> the type of the datum
+ * @since 0.1.0
+ */
+public final class DatumKey<T> {
+	private static final Map<String, Integer> IDS = new ConcurrentHashMap<>(); // keys of the same datum share an id
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+	private final String name;
+	private final Class<T> type;
+	final int id;
+
+	DatumKey(String name, Class<T> type) {
+		if (name == null) {
+			throw new NullPointerException("Datum name cannot be null!");
+		}
+		if (type == null) {
+			throw new NullPointerException("Type cannot be null!");
+		}
+		this.name = name;
+		this.type = type;
+		this.id = IDS.computeIfAbsent(name, n -> NEXT_ID.getAndIncrement());
+	}
+
+	/**
+	 * @return the slot of the datum in the plan, or -1 if the plan does not have the datum
+	 */
+	int slotIn(Plan plan) {
+		return plan.slotOf(this);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + type.getSimpleName();
+	}
+}
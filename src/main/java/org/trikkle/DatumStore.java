@@ -0,0 +1,299 @@
+package org.trikkle;
+
+import org.trikkle.structs.StrictConcurrentHashMap;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The cache of an overseer. Every datum of the plan has a slot, assigned when the plan is compiled
+ * ({@link Plan#slotOf(String)}), so a datum is stored and found by index into an array rather than by hashing its
+ * name into a concurrent map. Datums that are not in the plan, e.g. from an initial cache, are kept in a map beside the
+ * slots.
+ * <p>
+ * As a map, it behaves like a {@link StrictConcurrentHashMap}: putting a datum that is already present and getting one
+ * that is not both throw. Unlike it, datums can be null.
+ * <p>
+ * Doubles, longs and ints can also be stored unboxed, as bits beside their slot. The slot then holds a marker of the
+ * primitive type, and the datum is only boxed if it is read through the map view or as an object.
+ * <p>
+ * Large arrays and buffers put in a slot can be spilled to memory-mapped files ({@link SpilledDatum}), and are loaded
+ * back whenever they are read.
+ */
+final class DatumStore extends AbstractMap<String, Object> {
+	private static final Object NULL = new Object(); // stands in for a null datum, as an empty slot is null
+	private static final Object RESERVED = new Object(); // a slot whose primitive is being written
+	static final Object DOUBLE = new Object(), LONG = new Object(), INT = new Object(); // markers of primitives
+	private final Plan plan;
+	private final AtomicReferenceArray<Object> slots;
+	private final AtomicLongArray bits; // the bits of the primitive datums, indexed by slot
+	// datums without a slot, also wrapped
+	private final StrictConcurrentHashMap<String, Object> extras = new StrictConcurrentHashMap<>();
+	private volatile long spillThreshold = -1; // in bytes
+	private volatile Path spillDirectory;
+
+	DatumStore(Plan plan) {
+		this.plan = plan;
+		this.slots = new AtomicReferenceArray<>(plan.datumNames.length);
+		this.bits = new AtomicLongArray(plan.datumNames.length);
+	}
+
+	/**
+	 * @return the datum, {@link #unwrap(Object) wrapped}, or null if it is not present
+	 */
+	Object lookup(String datumName) {
+		int slot = plan.slotOf(datumName);
+		if (slot != -1) return lookup(slot);
+		return extras.containsKey(datumName) ? extras.get(datumName) : null;
+	}
+
+	/**
+	 * @return the datum in the slot, {@link #unwrap(Object) wrapped}, or null if it is not present
+	 */
+	Object lookup(int slot) {
+		return materialize(slot, published(slot));
+	}
+
+	private Object materialize(int slot, Object datum) {
+		if (datum == DOUBLE || datum == LONG || datum == INT) return box(datum, bits.get(slot));
+		if (datum instanceof SpilledDatum) return ((SpilledDatum) datum).load();
+		return datum;
+	}
+
+	/**
+	 * @param threshold the size in bytes above which datums are spilled, or -1 to spill none
+	 * @param directory the directory of the files
+	 */
+	void setSpill(long threshold, Path directory) {
+		spillDirectory = directory;
+		spillThreshold = threshold;
+	}
+
+	private Object spill(Object datum) {
+		long threshold = spillThreshold;
+		if (threshold == -1 || SpilledDatum.sizeOf(datum) <= threshold) return datum;
+		return SpilledDatum.spill(datum, spillDirectory);
+	}
+
+	private Object published(int slot) {
+		Object datum = slots.get(slot);
+		while (datum == RESERVED) { // the bits of a primitive are being written, which takes two stores
+			Thread.onSpinWait();
+			datum = slots.get(slot);
+		}
+		return datum;
+	}
+
+	static Object box(Object kind, long bits) {
+		if (kind == DOUBLE) return Double.longBitsToDouble(bits);
+		if (kind == LONG) return bits;
+		return (int) bits;
+	}
+
+	/**
+	 * Stores a primitive datum in its slot without boxing it.
+	 *
+	 * @param kind {@link #DOUBLE}, {@link #LONG} or {@link #INT}
+	 * @throws IllegalArgumentException if the datum is already present
+	 */
+	void putPrimitive(int slot, Object kind, long bits) {
+		if (!slots.compareAndSet(slot, null, RESERVED)) { // so that a losing writer cannot overwrite the bits
+			throw new IllegalArgumentException("Key \"" + plan.datumNames[slot] + "\" already present in map!");
+		}
+		this.bits.set(slot, bits);
+		slots.set(slot, kind); // publishes the bits
+	}
+
+	/**
+	 * @return the bits of the primitive datum in the slot, boxed datums of the same type being unboxed
+	 * @throws NullPointerException if the datum is not present
+	 * @throws ClassCastException   if the datum is of another type
+	 */
+	long getBits(int slot, Object kind) {
+		Object datum = published(slot);
+		if (datum == kind) return bits.get(slot);
+		if (datum == null) {
+			throw new NullPointerException("No datum with name " + plan.datumNames[slot] + " is in the cache!");
+		}
+		return bitsOf(kind, unwrap(datum));
+	}
+
+	/**
+	 * Unboxes the datum, widening it like {@link java.lang.reflect.Field#set(Object, Object)} would.
+	 *
+	 * @throws ClassCastException if the datum cannot be widened to the primitive type
+	 */
+	static long bitsOf(Object kind, Object datum) {
+		if (datum instanceof Integer || datum instanceof Short || datum instanceof Byte) {
+			long value = ((Number) datum).intValue();
+			return kind == DOUBLE ? Double.doubleToRawLongBits(value) : value;
+		}
+		if (datum instanceof Character) {
+			long value = (Character) datum;
+			return kind == DOUBLE ? Double.doubleToRawLongBits(value) : value;
+		}
+		if (kind == INT) return (Integer) datum;
+		if (datum instanceof Long) {
+			long value = (Long) datum;
+			return kind == DOUBLE ? Double.doubleToRawLongBits(value) : value;
+		}
+		if (kind == LONG) return (Long) datum;
+		if (datum instanceof Float) return Double.doubleToRawLongBits((Float) datum);
+		return Double.doubleToRawLongBits((Double) datum);
+	}
+
+	/**
+	 * @return the marker of the primitive type, or null if the type is not stored unboxed
+	 */
+	static Object kindOf(Class<?> type) {
+		if (type == double.class) return DOUBLE;
+		if (type == long.class) return LONG;
+		if (type == int.class) return INT;
+		return null;
+	}
+
+	static Object unwrap(Object datum) {
+		return datum == NULL ? null : datum;
+	}
+
+	private static Object wrap(Object datum) {
+		return datum == null ? NULL : datum;
+	}
+
+	@Override
+	public Object get(Object key) {
+		Object datum = key instanceof String ? lookup((String) key) : null;
+		if (datum == null) throw new IllegalArgumentException("Key \"" + key + "\" not present in map!");
+		return unwrap(datum);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && lookup((String) key) != null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int slot = plan.slotOf(key);
+		if (slot == -1) {
+			extras.put(key, wrap(value));
+		} else if (slots.get(slot) != null || !slots.compareAndSet(slot, null, wrap(spill(value)))) {
+			throw new IllegalArgumentException("Key \"" + key + "\" already present in map!");
+		}
+		return null;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ?> m) {
+		for (String key : m.keySet()) {
+			if (containsKey(key)) {
+				throw new IllegalArgumentException("Key \"" + key + "\" already present in map!");
+			}
+		}
+		for (Map.Entry<? extends String, ?> entry : m.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		int slot = plan.slotOf(key);
+		Object previous;
+		if (slot == -1) {
+			previous = extras.putIfAbsent(key, wrap(value));
+		} else {
+			previous = slots.compareAndExchange(slot, null, wrap(spill(value)));
+			if (previous != null) previous = lookup(slot);
+		}
+		return previous == null ? null : unwrap(previous);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (!(key instanceof String)) return null;
+		int slot = plan.slotOf((String) key);
+		if (slot == -1) {
+			Object previous = extras.remove(key);
+			return previous == null ? null : unwrap(previous);
+		}
+		Object previous = published(slot);
+		slots.set(slot, null);
+		return previous == null ? null : unwrap(materialize(slot, previous));
+	}
+
+	/**
+	 * Removes the datum like {@link #remove(Object)}, but without loading it back if it was spilled.
+	 *
+	 * @param datumName the name of the datum
+	 */
+	void discard(String datumName) {
+		int slot = plan.slotOf(datumName);
+		if (slot == -1) {
+			extras.remove(datumName);
+		} else {
+			slots.set(slot, null);
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (int slot = 0; slot < slots.length(); slot++) {
+			slots.set(slot, null);
+		}
+		extras.clear();
+	}
+
+	@Override
+	public int size() {
+		int size = extras.size();
+		for (int slot = 0; slot < slots.length(); slot++) {
+			if (slots.get(slot) != null) size++;
+		}
+		return size;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				List<Map.Entry<String, Object>> entries = new ArrayList<>(); // a snapshot, like a weakly consistent view
+				for (int slot = 0; slot < slots.length(); slot++) {
+					Object datum = lookup(slot);
+					if (datum != null) entries.add(new SimpleImmutableEntry<>(plan.datumNames[slot], unwrap(datum)));
+				}
+				for (Map.Entry<String, Object> entry : extras.entrySet()) {
+					entries.add(new SimpleImmutableEntry<>(entry.getKey(), unwrap(entry.getValue())));
+				}
+				Iterator<Map.Entry<String, Object>> iterator = entries.iterator();
+				return new Iterator<>() {
+					Map.Entry<String, Object> last;
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<String, Object> next() {
+						return last = iterator.next();
+					}
+
+					@Override
+					public void remove() {
+						if (last == null) throw new IllegalStateException();
+						DatumStore.this.remove(last.getKey());
+						last = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return DatumStore.this.size();
+			}
+		};
+	}
+}
@@ -3,7 +3,6 @@ package org.trikkle;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A {@link Node} that contains a defined positive number of datums.
@@ -14,8 +13,6 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @since 0.1.0
  */
 public final class DiscreteNode extends Node {
-	private final AtomicInteger datumsFilled = new AtomicInteger(0);
-
 	/**
 	 * Creates a new DiscreteNode with the given datum names.
 	 *
@@ -35,14 +32,32 @@ public final class DiscreteNode extends Node {
 
 	@Override
 	protected void uncheckedAddDatum(String datumName, Object datum) {
+		Overseer overseer = getOverseer();
 		overseer.getCache().put(datumName, datum);
+		onAdded(overseer, datumName, datum);
+	}
 
-		int i = datumsFilled.incrementAndGet();
-		if (i == datumNames.size()) { // all datums filled
-			setProgress(1);
-		} else {
-			setProgress((double) i / datumNames.size());
-		}
+	/**
+	 * Adds a primitive datum of this node without boxing it.
+	 *
+	 * @param slot the slot of the datum in the plan of the overseer
+	 * @param kind the primitive type of the datum, see {@link DatumStore#putPrimitive(int, Object, long)}
+	 * @param bits the bits of the datum
+	 */
+	void addPrimitive(int slot, Object kind, long bits) {
+		Overseer overseer = requireOverseer();
+		overseer.getDatumStore().putPrimitive(slot, kind, bits);
+		// only boxed for the journal
+		onAdded(overseer, overseer.plan.datumNames[slot],
+				overseer.getJournal() == null ? null : DatumStore.box(kind, bits));
+	}
+
+	private void onAdded(Overseer overseer, String datumName, Object datum) {
+		int i = overseer.incrementDatumCount(this);
+		double progress = i == datumNames.size() ? 1 : (double) i / datumNames.size(); // 1 if all datums filled
+		Journal journal = overseer.getJournal();
+		if (journal != null) journal.append(datumName, datum, progress); // before downstream arcs can run
+		setProgress(progress);
 	}
 
 	/**
@@ -52,18 +67,13 @@ public final class DiscreteNode extends Node {
 	 */
 	@Override
 	public void setUsable() {
-		if (datumsFilled.get() < datumNames.size()) {
+		Overseer overseer = requireOverseer();
+		if (overseer.getDatumCount(this) < datumNames.size()) {
 			throw new IllegalStateException("DiscreteNode " + this + " is not fully filled and cannot be set to usable.");
 		}
 		super.setUsable();
-		if (!overseer.g.endingNodes.contains(this)) {
+		if (!overseer.isEndingNode(this)) {
 			overseer.unsafeTicktock(this);
 		}
 	}
-
-	@Override
-	public void reset() {
-		super.reset();
-		datumsFilled.set(0);
-	}
 }
@@ -34,7 +34,8 @@ public final class EmptyNode extends Node {
 		if (!isUsable()) {
 			super.setUsable();
 			setProgress(1);
-			if (!overseer.g.endingNodes.contains(this)) {
+			Overseer overseer = getOverseer();
+			if (!overseer.isEndingNode(this)) {
 				overseer.unsafeTicktock(this);
 			}
 		}
@@ -1,96 +1,163 @@
 package org.trikkle;
 
 import java.util.*;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 /**
  * A class that races functions to return the result of the first function that finishes. The other functions are
- * interrupted.
+ * cancelled.
  * This class is useful for when you have multiple functions that can return the same result, and you want to use the
  * result
  * that comes back first.
+ * <p>
+ * Every function of a race is run as a task on the executor of the racer, by default one virtual thread each. The
+ * race returns as soon as one function finishes. The others are then cancelled: their threads are interrupted, and
+ * {@link #isCancelled()} returns true within them, so functions that do not block can poll it to stop early. A
+ * function that throws loses the race, and the race only fails if every function throws.
+ * <p>
+ * A racer holds no state between races and can race its functions any number of times at once.
  *
  * @since 0.1.0
  */
 public final class FunctionRacer {
+	private static final ThreadLocal<Race> CURRENT = new ThreadLocal<>();
+	private static final ThreadFactory VIRTUAL = Thread.ofVirtual().name("trikkle-racer-", 0).factory();
+
 	/**
 	 * The functions this racer will race.
 	 */
 	public final Set<Function<Map<String, Object>, Map<String, Object>>> functions;
-	private final Notifier notifier = new Notifier();
-	private Map<String, Object> result = null;
+	private final Executor executor;
 
 	/**
-	 * Creates a new function racer with the given functions.
+	 * Creates a new function racer with the given functions, each run on a virtual thread of its own.
 	 *
 	 * @param functions the given functions
 	 */
 	public FunctionRacer(Set<Function<Map<String, Object>, Map<String, Object>>> functions) {
+		this(functions, command -> VIRTUAL.newThread(command).start());
+	}
+
+	/**
+	 * Creates a new function racer with the given functions, run on the given executor. The executor should be able to
+	 * run all the functions at once, or later functions only start once earlier ones finish.
+	 *
+	 * @param functions the given functions
+	 * @param executor  the executor to run the functions on
+	 * @throws NullPointerException if the executor is null
+	 */
+	public FunctionRacer(Set<Function<Map<String, Object>, Map<String, Object>>> functions, Executor executor) {
+		if (executor == null) {
+			throw new NullPointerException("Executor cannot be null!");
+		}
 		this.functions = functions;
+		this.executor = executor;
 	}
 
 	/**
 	 * Applies the functions to the given input cache and returns the result of the first function that finishes. The
-	 * other functions are interrupted.
+	 * other functions are cancelled.
 	 *
 	 * @param inputCache the input cache
 	 * @return the output cache of the first function that finishes
+	 * @throws IllegalStateException if there are no functions
+	 * @throws RuntimeException      the first exception thrown by a function, if every function throws
 	 */
 	public Map<String, Object> apply(Map<String, Object> inputCache) {
-		List<RecursiveAction> tasks = new ArrayList<>();
-
-		for (Function<Map<String, Object>, Map<String, Object>> function : functions) {
-			// Wrapping in Thread is necessary for it to be interruptible
-			Thread thread = new Thread(() -> returnResult(function.apply(inputCache)));
-			notifier.addListener(thread::interrupt);
+		return Overseer.join(applyAsync(inputCache));
+	}
 
-			RecursiveAction task = new RecursiveAction() {
-				@Override
-				protected void compute() {
-					thread.start();
-					try {
-						thread.join();
-					} catch (InterruptedException e) {
-						throw new RuntimeException(e);
-					}
-				}
-			};
-			tasks.add(task);
+	/**
+	 * Applies the functions to the given input cache without waiting for them. The future is completed with the result
+	 * of the first function that finishes, or exceptionally with the first exception thrown by a function if every
+	 * function throws. Cancelling the future cancels every function.
+	 *
+	 * @param inputCache the input cache
+	 * @return a future of the output cache of the first function that finishes
+	 */
+	public CompletableFuture<Map<String, Object>> applyAsync(Map<String, Object> inputCache) {
+		CompletableFuture<Map<String, Object>> winner = new CompletableFuture<>();
+		if (functions.isEmpty()) {
+			winner.completeExceptionally(new IllegalStateException("No functions were called!"));
+			return winner;
 		}
-		ForkJoinTask.invokeAll(tasks);
 
-		if (!notifier.wasCalled()) {
-			throw new IllegalStateException("No functions were called!");
+		Race race = new Race(winner, functions.size());
+		winner.whenComplete((result, t) -> race.cancel());
+		for (Function<Map<String, Object>, Map<String, Object>> function : functions) {
+			try {
+				executor.execute(() -> race.run(function, inputCache));
+			} catch (RejectedExecutionException e) {
+				race.lose(e);
+			}
 		}
-		return result;
+		return winner;
 	}
 
-	private synchronized void returnResult(Map<String, Object> map) {
-		if (!notifier.wasCalled()) {
-			result = map;
-			notifier.call();
-		}
+	/**
+	 * Returns true if called within a function of a race that has already been won by another function, or cancelled.
+	 * Functions should poll this and return early if it is true. Returns false outside of races.
+	 *
+	 * @return true if the race of the current thread has been cancelled
+	 */
+	public static boolean isCancelled() {
+		Race race = CURRENT.get();
+		return race != null && race.cancelled;
 	}
 
-	private static class Notifier {
-		final List<Runnable> listeners = new LinkedList<>();
-		boolean called = false;
+	private static final class Race {
+		final CompletableFuture<Map<String, Object>> winner;
+		final AtomicInteger remaining; // functions that have not thrown
+		final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+		final Set<Thread> threads = new HashSet<>(); // running functions, guarded by this
+		volatile boolean cancelled = false;
 
-		void addListener(Runnable runnable) {
-			listeners.add(runnable);
+		Race(CompletableFuture<Map<String, Object>> winner, int functionCount) {
+			this.winner = winner;
+			this.remaining = new AtomicInteger(functionCount);
 		}
 
-		void call() {
-			called = true;
-			for (Runnable listener : listeners) {
-				listener.run();
+		void run(Function<Map<String, Object>, Map<String, Object>> function, Map<String, Object> inputCache) {
+			if (cancelled) return; // lost before it started
+			Thread thread = Thread.currentThread();
+			synchronized (this) {
+				threads.add(thread);
+			}
+			Race previous = CURRENT.get();
+			CURRENT.set(this);
+			try {
+				winner.complete(function.apply(inputCache));
+			} catch (Throwable t) {
+				lose(t);
+			} finally {
+				if (previous == null) {
+					CURRENT.remove();
+				} else {
+					CURRENT.set(previous);
+				}
+				synchronized (this) {
+					threads.remove(thread);
+				}
+				// a pooled thread must not carry the interrupt of this race into its next task
+				if (cancelled) Thread.interrupted();
 			}
 		}
 
-		boolean wasCalled() {
-			return called;
+		void lose(Throwable t) {
+			firstFailure.compareAndSet(null, t);
+			if (remaining.decrementAndGet() == 0) winner.completeExceptionally(firstFailure.get());
+		}
+
+		void cancel() {
+			cancelled = true;
+			synchronized (this) {
+				for (Thread thread : threads) {
+					thread.interrupt();
+				}
+			}
 		}
 	}
 }
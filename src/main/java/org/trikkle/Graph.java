@@ -32,8 +32,10 @@ public final class Graph implements Congruent<Graph> {
 	public final Set<Node> endingNodes = new HashSet<>();
 	public final Map<Arc, Link> arcMap = new HashMap<>();
 	public final MultiMap<Node, Link> outputNodeMap = new MultiHashMap<>();
+	public final MultiMap<Node, Link> dependencyNodeMap = new MultiHashMap<>(); // the links that depend on each node
 	public final MultiMap<Node, Node> dependenciesOfNode = new MultiHashMap<>();
 	public final Map<String, Node> nodeOfDatum = new HashMap<>();
+	private volatile Plan plan; // compiled on first use, and again after the links change
 
 	/**
 	 * Create a graph with the given links. Takes in an ordered list to allow fixed index of arcs and nodes.
@@ -58,14 +60,17 @@ public final class Graph implements Congruent<Graph> {
 			// indexing data structures. the order of traversal is constant
 			for (Node dependency : link.getDependencies()) {
 				if (!nodeIndex.containsKey(dependency)) {
+					dependency.graphIndex = new Index(this, nodeI);
 					nodeIndex.put(dependency, nodeI++);
 				}
 			}
 			for (Node outputNode : link.getOutputNodes()) {
 				if (!nodeIndex.containsKey(outputNode)) {
+					outputNode.graphIndex = new Index(this, nodeI);
 					nodeIndex.put(outputNode, nodeI++);
 				}
 			}
+			link.getArc().graphIndex = new Index(this, arcI);
 			arcIndex.put(link.getArc(), arcI++);
 
 			// assistant data structures
@@ -80,6 +85,9 @@ public final class Graph implements Congruent<Graph> {
 				}
 			}
 
+			for (Node dependency : link.getDependencies()) {
+				dependencyNodeMap.putOne(dependency, link);
+			}
 			dependencyNodes.addAll(link.getDependencies());
 		}
 		primables = new HashSet<>(nodes);
@@ -257,7 +265,8 @@ public final class Graph implements Congruent<Graph> {
 	}
 
 	/**
-	 * Optimizes the graph by removing redundant transitive dependencies. <b>Changes links in place.</b>\
+	 * Optimizes the graph by removing redundant transitive dependencies. <b>Changes links in place.</b> Plans compiled
+	 * before are stale, and {@link #getPlan()} compiles the graph again.
 	 *
 	 * @return a map of nodes to their redundant dependencies
 	 */
@@ -286,10 +295,15 @@ public final class Graph implements Congruent<Graph> {
 			optimized.put(entry.getKey(), copy);
 		}
 
+		dependencyNodeMap.clear();
 		for (Link link : links) {
 			Node oneNode = link.getOutputNodes().iterator().next(); // all output nodes of a link have the same dependencies
 			link.setDependencies(optimized.get(oneNode));
+			for (Node dependency : link.getDependencies()) {
+				dependencyNodeMap.putOne(dependency, link);
+			}
 		}
+		plan = null; // compiled from the old dependencies
 
 		return redundanciesOfNode;
 	}
@@ -397,6 +411,39 @@ public final class Graph implements Congruent<Graph> {
 		return Objects.hash(links);
 	}
 
+	/**
+	 * Returns the plan of this graph, which is compiled on first use and kept until the links change in place (see
+	 * {@link #optimizeDependencies()}). Used by {@link Overseer#Overseer(Graph)}, so that overseers of the same graph
+	 * share one plan.
+	 *
+	 * @return the plan of this graph
+	 */
+	public Plan getPlan() {
+		Plan plan = this.plan;
+		if (plan == null) { // racing threads compile equal plans, and one of them is kept
+			plan = new Plan(this);
+			this.plan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Mints a typed key for the datum with the given name.
+	 *
+	 * @param datumName the datum name
+	 * @param type      the type of the datum
+	 * @param <T>       the type of the datum
+	 * @return the key of the datum
+	 * @throws IllegalArgumentException if no node in this graph has the datum
+	 * @see DatumKey
+	 */
+	public <T> DatumKey<T> keyOf(String datumName, Class<T> type) {
+		if (!nodeOfDatum.containsKey(datumName)) {
+			throw new IllegalArgumentException("No node in this graph has datum " + datumName + "!");
+		}
+		return new DatumKey<>(datumName, type);
+	}
+
 	/**
 	 * Visualize the graph using Mermaid without any done nodes.
 	 *
@@ -407,4 +454,18 @@ public final class Graph implements Congruent<Graph> {
 	public String toString() {
 		return MermaidGraphViz.defaultVisualize(this);
 	}
+
+	/**
+	 * The index of an arc or node in a graph, kept by the arc or node so that plans of the graph find it without
+	 * hashing. An arc or node keeps only the index in the last graph built with it.
+	 */
+	static final class Index {
+		final Graph graph;
+		final int index;
+
+		Index(Graph graph, int index) {
+			this.graph = graph;
+			this.index = index;
+		}
+	}
 }
@@ -0,0 +1,74 @@
+package org.trikkle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A policy for hedged (speculative) execution of an arc with heavy tail latency. If an attempt to run the arc has not
+ * finished after a delay, a second attempt is started. The first attempt to finish wins and its datums are returned to
+ * the overseer. The other attempt is interrupted and whatever it returns is discarded, so no datum is ever added twice.
+ * <p>
+ * The delay is either fixed, or a percentile of the recent burst times of the arc in the
+ * {@link Overseer#setBurstHistory(BurstHistory) burst history} of the overseer. Until enough burst times are
+ * recorded, the arc is run without hedging.
+ *
+ * @see Arc#setHedge(Hedge)
+ * @see BurstHistory#getPercentile(Arc, double)
+ * @since 0.1.0
+ */
+public final class Hedge {
+	private final double percentile;
+	private final int minSamples;
+	private final long delay; // in nanoseconds, or -1 to use the percentile
+
+	/**
+	 * Creates a policy that starts a second attempt once the first has taken longer than the given percentile of the
+	 * recent burst times of the arc.
+	 *
+	 * @param percentile the percentile, e.g. 0.95
+	 * @param minSamples the number of burst times that must be recorded before attempts are hedged
+	 * @throws IllegalArgumentException if the percentile is not between 0 and 1, or the number of samples is less
+	 *                                  than 1
+	 */
+	public Hedge(double percentile, int minSamples) {
+		if (percentile < 0 || percentile > 1) {
+			throw new IllegalArgumentException("Percentile " + percentile + " not between 0 and 1!");
+		}
+		if (minSamples < 1) {
+			throw new IllegalArgumentException("Minimum number of samples " + minSamples + " must be at least 1!");
+		}
+		this.percentile = percentile;
+		this.minSamples = minSamples;
+		this.delay = -1;
+	}
+
+	/**
+	 * Creates a policy that starts a second attempt once the first has taken longer than the given delay.
+	 *
+	 * @param delay    the delay
+	 * @param timeUnit the time unit of the delay
+	 * @throws NullPointerException     if the time unit is null
+	 * @throws IllegalArgumentException if the delay is negative
+	 */
+	public Hedge(long delay, TimeUnit timeUnit) {
+		if (timeUnit == null) {
+			throw new NullPointerException("Time unit cannot be null!");
+		}
+		if (delay < 0) {
+			throw new IllegalArgumentException("Delay " + delay + " cannot be negative!");
+		}
+		this.percentile = -1;
+		this.minSamples = 0;
+		this.delay = timeUnit.toNanos(delay);
+	}
+
+	/**
+	 * @param arc     the arc
+	 * @param history the burst history of the overseer, possibly null
+	 * @return the delay in nanoseconds after which to start a second attempt, or -1 if the arc should not be hedged
+	 */
+	long delayOf(Arc arc, BurstHistory history) {
+		if (delay != -1) return delay;
+		if (history == null || history.getSampleCount(arc) < minSamples) return -1;
+		return history.getPercentile(arc, percentile);
+	}
+}
@@ -0,0 +1,168 @@
+package org.trikkle;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs a {@link Plan} again and again as its starting datums change, recomputing only what a change affects. The
+ * cache and run state of the previous run are kept. When starting datums change, only the arcs downstream of the nodes
+ * holding them are run again, and only the datums of the nodes downstream of those arcs are recomputed, along with the
+ * other arcs that fill those nodes. Everything else is carried over in place, and only the state of the affected nodes
+ * and arcs is reset. Starting the new run still scans the plan once for its bookkeeping, but no arc that is not
+ * affected runs, and the cache is not copied.
+ * <p>
+ * Every run is done by a fresh overseer ({@link #getOverseer()}), which takes over the cache and run state of the
+ * previous one. Arcs that are not run again keep their status and times from the run that last ran them. The previous
+ * overseer must not be used after an update, except for its result cache. Eviction
+ * ({@link Overseer#setEviction(boolean)}) is always turned off, as the datums of the previous run must stay in the
+ * cache.
+ * <p>
+ * This class is thread-safe. Runs and updates are done one at a time.
+ *
+ * @see Overseer#Overseer(Plan, Map)
+ * @since 0.1.0
+ */
+public final class Incremental {
+	private final Plan plan;
+	private final Consumer<Overseer> configurer;
+	private Overseer overseer;
+	private int rerunArcCount;
+
+	/**
+	 * Creates an incremental runner for the given plan.
+	 *
+	 * @param plan the plan to run
+	 * @throws NullPointerException if the plan is null
+	 */
+	public Incremental(Plan plan) {
+		this(plan, overseer -> {
+		});
+	}
+
+	/**
+	 * Creates an incremental runner for the given plan. The configurer is called on the overseer of every run before
+	 * it is started, e.g. to set its executor.
+	 *
+	 * @param plan       the plan to run
+	 * @param configurer called on the overseer of every run before it is started
+	 * @throws NullPointerException if the plan or configurer is null
+	 */
+	public Incremental(Plan plan, Consumer<Overseer> configurer) {
+		if (plan == null) {
+			throw new NullPointerException("Plan cannot be null!");
+		}
+		if (configurer == null) {
+			throw new NullPointerException("Configurer cannot be null!");
+		}
+		this.plan = plan;
+		this.configurer = configurer;
+	}
+
+	/**
+	 * Runs the whole plan, discarding any previous run.
+	 *
+	 * @param startingDatums the starting datums
+	 * @return the result cache
+	 * @throws IllegalStateException if the starting nodes are not fully populated
+	 */
+	public synchronized Map<String, Object> run(Map<String, Object> startingDatums) {
+		Overseer next = new Overseer(plan);
+		configurer.accept(next);
+		next.setEviction(false);
+		next.fillStartingDatums(startingDatums);
+		next.start();
+		overseer = next;
+		rerunArcCount = plan.arcCount();
+		return next.getResultCache();
+	}
+
+	/**
+	 * Runs only the part of the plan downstream of the changed starting datums. Datums that are equal to their
+	 * previous value ({@link Objects#equals(Object, Object)}) are not considered changed.
+	 *
+	 * @param changedDatums the starting datums that changed, by datum name
+	 * @return the result cache
+	 * @throws IllegalStateException    if the plan has not been run
+	 * @throws IllegalArgumentException if a datum is not a starting datum
+	 */
+	public synchronized Map<String, Object> update(Map<String, Object> changedDatums) {
+		if (overseer == null) {
+			throw new IllegalStateException("Plan must be run before it can be updated!");
+		}
+		Map<String, Object> previousCache = overseer.getCache();
+
+		boolean[] staleNodes = new boolean[plan.nodeCount()];
+		boolean[] staleArcs = new boolean[plan.arcCount()];
+		Queue<Integer> changedNodes = new ArrayDeque<>();
+		for (Map.Entry<String, Object> entry : changedDatums.entrySet()) {
+			int n = startingNodeOf(entry.getKey());
+			Object previous = previousCache.containsKey(entry.getKey()) ? previousCache.get(entry.getKey()) : null;
+			if (Objects.equals(previous, entry.getValue())) continue;
+			changedNodes.add(n);
+		}
+
+		// the downstream closure of the changed nodes, with every producer of a stale node, as the node is refilled
+		List<Integer> staleNodeIndices = new ArrayList<>(), staleArcIndices = new ArrayList<>();
+		while (!changedNodes.isEmpty()) {
+			int n = changedNodes.remove();
+			List<Integer> rerun = new ArrayList<>();
+			for (int a : plan.dependents[n]) rerun.add(a);
+			if (staleNodes[n]) {
+				for (int a : plan.producers[n]) rerun.add(a);
+			}
+			for (int a : rerun) {
+				if (staleArcs[a]) continue;
+				staleArcs[a] = true;
+				staleArcIndices.add(a);
+				for (int output : plan.outputNodes[a]) {
+					if (staleNodes[output]) continue;
+					staleNodes[output] = true;
+					staleNodeIndices.add(output);
+					changedNodes.add(output);
+				}
+			}
+		}
+
+		Overseer next = new Overseer(overseer, toArray(staleNodeIndices), toArray(staleArcIndices));
+		configurer.accept(next);
+		next.setEviction(false);
+		DatumStore cache = next.getDatumStore();
+		for (Map.Entry<String, Object> entry : changedDatums.entrySet()) {
+			cache.discard(entry.getKey());
+			cache.put(entry.getKey(), entry.getValue());
+		}
+		next.start();
+		overseer = next;
+		rerunArcCount = staleArcIndices.size();
+		return next.getResultCache();
+	}
+
+	private static int[] toArray(List<Integer> indices) {
+		int[] array = new int[indices.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = indices.get(i);
+		}
+		return array;
+	}
+
+	private int startingNodeOf(String datumName) {
+		for (int n : plan.startingNodes) {
+			if (plan.nodes[n].datumNames.contains(datumName)) return n;
+		}
+		throw new IllegalArgumentException("Datum " + datumName + " is not a starting datum!");
+	}
+
+	/**
+	 * @return the overseer of the last run or update, or null if the plan has not been run
+	 */
+	public synchronized Overseer getOverseer() {
+		return overseer;
+	}
+
+	/**
+	 * @return the number of arcs that were run again by the last run or update
+	 */
+	public synchronized int getRerunArcCount() {
+		return rerunArcCount;
+	}
+}
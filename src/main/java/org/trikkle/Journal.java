@@ -0,0 +1,350 @@
+package org.trikkle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the datums added to the discrete nodes of an overseer
+ * ({@link Overseer#setJournal(Journal)}), from which the state of an overseer that crashed can be rebuilt with
+ * {@link #replay(Path, DatumCodec, Graph)}.
+ * Unlike a {@link Checkpoint}, which writes the whole cache, the journal only writes each datum once, as it is added.
+ * <p>
+ * Adding a datum only queues it, so the journal adds little to the threads running arcs. A writer thread of the journal
+ * encodes the queued datums, appends them to the file, and forces them to disk, once for every batch of datums that
+ * queued up while the last batch was written (group commit). Datums must therefore not be modified after they are
+ * returned. A datum is durable once its batch is forced; {@link #flush()} waits for that. Once the writer falls behind
+ * by the capacity of the journal, adding a datum blocks until its batch is forced, so the queue cannot outgrow the
+ * memory.
+ * <p>
+ * Every record holds the name of the datum, the progress of its node after it was added, and the encoded datum, and is
+ * checksummed, so a record torn by a crash ends the replay rather than corrupting it.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Overseer#setJournal(Journal)
+ * @since 0.1.0
+ */
+public final class Journal implements AutoCloseable {
+	private static final int HEADER = 2 * Integer.BYTES; // the length and the checksum of the payload
+	private static final int DEFAULT_CAPACITY = 8192;
+	private final FileChannel channel;
+	private final DatumCodec codec;
+	private final int capacity;
+	private final Queue<Record> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicLong appended = new AtomicLong(0);
+	// guards closed and pending, so that no record is queued once close() has begun
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private final Condition notFull = appendLock.newCondition();
+	private int pending = 0; // records queued or in the batch being written
+	private final Thread writer;
+	private volatile long durable = 0; // the number of records forced to disk
+	private volatile boolean parked = false, closed = false;
+	private volatile IOException failure;
+	private volatile long batchCount = 0; // only written by the writer
+
+	/**
+	 * Opens a journal with a capacity of {@value DEFAULT_CAPACITY} datums, appending to the file if it exists.
+	 *
+	 * @param file  the journal file
+	 * @param codec the codec to encode the datums with
+	 * @throws IOException if the file cannot be opened
+	 */
+	public Journal(Path file, DatumCodec codec) throws IOException {
+		this(file, codec, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Opens a journal, appending to the file if it exists.
+	 *
+	 * @param file     the journal file
+	 * @param codec    the codec to encode the datums with
+	 * @param capacity the number of datums that may be waiting to be written before adding a datum blocks
+	 * @throws IOException              if the file cannot be opened
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public Journal(Path file, DatumCodec codec, int capacity) throws IOException {
+		if (codec == null) {
+			throw new NullPointerException("Codec cannot be null!");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity " + capacity + " must be positive!");
+		}
+		this.codec = codec;
+		this.capacity = capacity;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		this.writer = new Thread(this::write, "trikkle-journal");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues a datum to be written. Called by the node the datum was added to. Blocks while the journal is full.
+	 *
+	 * @throws UncheckedIOException  if the journal failed to write earlier datums, or the thread was interrupted while
+	 *                               the journal was full, in which case the cause is an {@link InterruptedIOException}
+	 *                               and the interrupt status is kept
+	 * @throws IllegalStateException if the journal is closed
+	 */
+	void append(String datumName, Object datum, double progress) {
+		appendLock.lock();
+		try {
+			while (true) {
+				if (failure != null) throw new UncheckedIOException(failure);
+				if (closed) {
+					throw new IllegalStateException("Journal is closed!");
+				}
+				if (pending < capacity) break;
+				LockSupport.unpark(writer);
+				try {
+					notFull.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new UncheckedIOException(
+							new InterruptedIOException("Interrupted while the journal was full!"));
+				}
+			}
+			pending++;
+			queue.add(new Record(datumName, datum, progress));
+			appended.incrementAndGet();
+		} finally {
+			appendLock.unlock();
+		}
+		if (parked) LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Blocks until every datum added so far is on disk.
+	 *
+	 * @throws UncheckedIOException if the journal failed to write a datum, or the thread was interrupted before the
+	 *                              datums were on disk, in which case the cause is an {@link InterruptedIOException}
+	 *                              and the interrupt status is kept
+	 */
+	public void flush() {
+		long target = appended.get();
+		synchronized (this) {
+			while (durable < target && failure == null) {
+				LockSupport.unpark(writer);
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new UncheckedIOException(
+							new InterruptedIOException("Interrupted before the journal was flushed!"));
+				}
+			}
+		}
+		if (failure != null) throw new UncheckedIOException(failure);
+	}
+
+	/**
+	 * Writes the datums that are still queued and closes the file.
+	 *
+	 * @throws IOException if the journal failed to write a datum, or the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		appendLock.lock();
+		try {
+			closed = true;
+			notFull.signalAll();
+		} finally {
+			appendLock.unlock();
+		}
+		LockSupport.unpark(writer);
+		boolean interrupted = false;
+		while (writer.isAlive()) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+		channel.close();
+		if (failure != null) throw failure;
+	}
+
+	/**
+	 * @return the number of batches forced to disk, each holding one or more datums
+	 */
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	private void write() {
+		ByteArrayOutputStream batch = new ByteArrayOutputStream();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(payload);
+		CRC32 crc = new CRC32();
+		long written = 0;
+		while (true) {
+			Record record = queue.poll();
+			if (record == null) {
+				if (closed) return;
+				parked = true;
+				// rechecked, as an appender may have queued a record before it could see parked
+				if (queue.isEmpty() && !closed) LockSupport.park(this);
+				parked = false;
+				continue;
+			}
+			int count = 0;
+			try {
+				batch.reset();
+				for (; record != null; record = queue.poll()) { // every record queued while the last batch was written
+					count++;
+					payload.reset();
+					out.writeUTF(record.datumName);
+					out.writeDouble(record.progress);
+					out.write(codec.encode(record.datumName, record.datum));
+					crc.reset();
+					crc.update(payload.toByteArray());
+					ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(payload.size()).putInt((int) crc.getValue());
+					batch.write(header.array());
+					payload.writeTo(batch);
+					written++;
+				}
+				ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+				batchCount++;
+				durable = written;
+			} catch (IOException e) {
+				failure = e;
+			} catch (Throwable e) { // e.g. from a codec, which must not leave flush() waiting for the dead writer
+				failure = new IOException("Journal failed to write a datum!", e);
+			}
+			appendLock.lock();
+			try {
+				pending -= count;
+				notFull.signalAll(); // and appenders waiting when the journal failed
+			} finally {
+				appendLock.unlock();
+			}
+			synchronized (this) {
+				notifyAll();
+			}
+			if (failure != null) return;
+		}
+	}
+
+	/**
+	 * Reads every intact record of a journal, up to the first record that was torn by a crash.
+	 *
+	 * @param file  the journal file
+	 * @param codec the codec the datums were encoded with
+	 * @return the datums, by name
+	 * @throws IOException if the file cannot be read, or a datum cannot be decoded
+	 */
+	public static Map<String, Object> read(Path file, DatumCodec codec) throws IOException {
+		return read(file, codec, new HashSet<>());
+	}
+
+	/**
+	 * Rebuilds the state of an overseer of the graph from a journal. Only the datums of nodes that were complete are
+	 * kept, and only if every arc that output the node had completed all of its output nodes, so that no arc of the new
+	 * overseer returns a datum that it already has. The overseer then starts as if these datums were its initial cache,
+	 * see {@link Overseer#Overseer(Graph, Map)}.
+	 *
+	 * @param file  the journal file
+	 * @param codec the codec the datums were encoded with
+	 * @param graph the graph the journal was written by
+	 * @return a new overseer of the graph, ready to be started
+	 * @throws IOException if the file cannot be read, or a datum cannot be decoded
+	 */
+	public static Overseer replay(Path file, DatumCodec codec, Graph graph) throws IOException {
+		return new Overseer(graph, completeDatums(file, codec, graph.getPlan()));
+	}
+
+	/**
+	 * Rebuilds the state of an overseer of the plan from a journal, without priming any {@link Primable}.
+	 *
+	 * @see #replay(Path, DatumCodec, Graph)
+	 */
+	public static Overseer replay(Path file, DatumCodec codec, Plan plan) throws IOException {
+		return new Overseer(plan, completeDatums(file, codec, plan));
+	}
+
+	private static Map<String, Object> completeDatums(Path file, DatumCodec codec, Plan plan) throws IOException {
+		Set<String> completing = new HashSet<>(); // datums whose record brought their node to progress 1
+		Map<String, Object> datums = read(file, codec, completing);
+		boolean[] complete = new boolean[plan.nodeCount()];
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			for (String datumName : plan.nodes[n].datumNames) {
+				if (completing.contains(datumName)) complete[n] = true;
+			}
+		}
+		Map<String, Object> kept = new HashMap<>();
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			boolean keep = complete[n];
+			for (int a : plan.producers[n]) {
+				for (int output : plan.outputNodes[a]) {
+					if (!complete[output]) keep = false;
+				}
+			}
+			if (!keep) continue;
+			for (String datumName : plan.nodes[n].datumNames) {
+				if (datums.containsKey(datumName)) kept.put(datumName, datums.get(datumName));
+			}
+		}
+		return kept;
+	}
+
+	private static Map<String, Object> read(Path file, DatumCodec codec, Set<String> completing) throws IOException {
+		Map<String, Object> datums = new HashMap<>();
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file);
+		} catch (NoSuchFileException e) {
+			return datums;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		CRC32 crc = new CRC32();
+		while (buffer.remaining() >= HEADER) {
+			int length = buffer.getInt();
+			int checksum = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) break; // torn
+			crc.reset();
+			crc.update(bytes, buffer.position(), length);
+			if ((int) crc.getValue() != checksum) break;
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, buffer.position(), length));
+			String datumName = in.readUTF();
+			double progress = in.readDouble();
+			datums.put(datumName, codec.decode(datumName, in.readAllBytes()));
+			if (progress == 1) completing.add(datumName);
+			buffer.position(buffer.position() + length);
+		}
+		return datums;
+	}
+
+	private static final class Record {
+		final String datumName;
+		final Object datum;
+		final double progress;
+
+		Record(String datumName, Object datum, double progress) {
+			this.datumName = datumName;
+			this.datum = datum;
+			this.progress = progress;
+		}
+	}
+}
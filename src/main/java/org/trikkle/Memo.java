@@ -0,0 +1,169 @@
+package org.trikkle;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache of arc outputs shared across runs. For an arc memoized with {@link Arc#setMemo(Memo)}, the outputs
+ * of every run are stored under the arc and the values of its {@link org.trikkle.annotations.Input} datums. When the
+ * arc is about to run again with equal inputs ({@link Object#equals(Object)}), {@link Arc#run()} is skipped and the
+ * stored outputs are returned instead.
+ * <p>
+ * The least recently used outputs are evicted once the memo holds more than its maximum number of entries, or, with a
+ * weigher, once the total weight of its entries exceeds the maximum weight. The outputs are shared by every run that
+ * hits them and must not be modified.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Arc#setMemo(Memo)
+ * @since 0.1.0
+ */
+public final class Memo {
+	private final long maxWeight;
+	private final ToLongFunction<Object[]> weigher;
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // in access order
+	private long weight = 0;
+	private long hits = 0, misses = 0, evictions = 0;
+
+	/**
+	 * Creates a memo that holds the outputs of at most {@code maxEntries} runs.
+	 *
+	 * @param maxEntries the maximum number of entries
+	 * @throws IllegalArgumentException if the maximum number of entries is less than 1
+	 */
+	public Memo(int maxEntries) {
+		this(maxEntries, outputs -> 1);
+	}
+
+	/**
+	 * Creates a memo whose entries weigh at most {@code maxWeight} in total.
+	 *
+	 * @param maxWeight the maximum total weight of the entries
+	 * @param weigher   the weight of the outputs of a run, e.g. an estimate of their size in bytes
+	 * @throws NullPointerException     if the weigher is null
+	 * @throws IllegalArgumentException if the maximum weight is less than 1
+	 */
+	public Memo(long maxWeight, ToLongFunction<Object[]> weigher) {
+		if (weigher == null) {
+			throw new NullPointerException("Weigher cannot be null!");
+		}
+		if (maxWeight < 1) {
+			throw new IllegalArgumentException("Maximum weight " + maxWeight + " must be at least 1!");
+		}
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * @return the stored outputs, or null if there are none
+	 */
+	synchronized Object[] get(Arc arc, Object[] inputs) {
+		Entry entry = entries.get(new Key(arc, inputs));
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.outputs;
+	}
+
+	void put(Arc arc, Object[] inputs, Object[] outputs) {
+		long entryWeight = weigher.applyAsLong(outputs);
+		if (entryWeight < 0) {
+			throw new IllegalStateException("Weight " + entryWeight + " of the outputs of arc " + arc +
+					" cannot be negative!");
+		}
+		synchronized (this) {
+			if (entryWeight > maxWeight) return; // would evict everything and still not fit
+			Entry previous = entries.put(new Key(arc, inputs), new Entry(outputs, entryWeight));
+			if (previous != null) weight -= previous.weight;
+			weight += entryWeight;
+
+			Iterator<Entry> iterator = entries.values().iterator();
+			while (weight > maxWeight) {
+				Entry eldest = iterator.next();
+				iterator.remove();
+				weight -= eldest.weight;
+				evictions++;
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries. The counters are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * @return the number of runs whose outputs were found in this memo
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of runs whose outputs were not found in this memo
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of entries evicted to stay within the bound
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the total weight of the entries
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	private static final class Key {
+		final Arc arc;
+		final Object[] inputs;
+		final int hash;
+
+		Key(Arc arc, Object[] inputs) {
+			this.arc = arc;
+			this.inputs = inputs;
+			this.hash = 31 * System.identityHashCode(arc) + Arrays.deepHashCode(inputs);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key key = (Key) o;
+			return arc == key.arc && Arrays.deepEquals(inputs, key.inputs);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private static final class Entry {
+		final Object[] outputs;
+		final long weight;
+
+		Entry(Object[] outputs, long weight) {
+			this.outputs = outputs;
+			this.weight = weight;
+		}
+	}
+}
@@ -5,6 +5,10 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A vertex in the execution graph representing datums to be filled.
+ * <p>
+ * The progress and usability of a node are kept by the {@link Overseer} running it, so the same node may be in use by
+ * several overseers at once. The node's methods act on the overseer running on the current thread, or, failing that, on
+ * the overseer the node was primed with.
  *
  * @see Arc
  * @see Link
@@ -14,9 +18,15 @@ import java.util.concurrent.locks.ReentrantLock;
 public abstract class Node implements Primable, Congruent<Node> { // Generics are too restricting for this class
 	public final Set<String> datumNames; // unique identifies a node
 	private final ReentrantLock lock = new ReentrantLock();
+	/**
+	 * The overseer this node was primed with.
+	 *
+	 * @deprecated nodes run by an overseer constructed from a {@link Plan} are not primed with it. Use
+	 * {@link #getOverseer()}, which finds the overseer running on the current thread.
+	 */
+	@Deprecated
 	protected Overseer overseer;
-	private boolean usable = false; // once true cannot be false
-	private double progress = 0; // monotonically increasing
+	Graph.Index graphIndex; // the index of this node in the last graph built with it
 
 	protected Node(Set<String> datumNames) {
 		for (String datumName : datumNames) {
@@ -36,9 +46,7 @@ public abstract class Node implements Primable, Congruent<Node> { // Generics ar
 	 * @throws IllegalArgumentException if the datum was not declared by the node
 	 */
 	public final void addDatum(String datumName, Object datum) {
-		if (overseer == null) {
-			throw new IllegalStateException("Node " + this + " is not primed with an overseer!");
-		}
+		requireOverseer();
 		if (!datumNames.contains(datumName)) {
 			throw new IllegalArgumentException("Datum " + datumName + " was not declared by this node!");
 		}
@@ -47,19 +55,30 @@ public abstract class Node implements Primable, Congruent<Node> { // Generics ar
 
 	protected abstract void uncheckedAddDatum(String datumName, Object datum);
 
+	/**
+	 * @return true if the node is usable, or false if the node is not primed with an overseer
+	 */
 	public boolean isUsable() {
-		return usable;
+		Overseer overseer = getOverseer();
+		return overseer != null && overseer.isUsable(this);
 	}
 
 	/**
-	 * Irreversibly sets the node to {@code usable}.
+	 * Irreversibly sets the node to {@code usable}. The overseer is notified so that it can update the links that
+	 * depend on this node.
+	 *
+	 * @throws IllegalStateException if the node is not primed with an overseer
 	 */
 	public void setUsable() {
-		this.usable = true;
+		requireOverseer().setUsable(this);
 	}
 
+	/**
+	 * @return the progress of the node, or 0 if the node is not primed with an overseer
+	 */
 	public double getProgress() {
-		return progress;
+		Overseer overseer = getOverseer();
+		return overseer == null ? 0 : overseer.getProgress(this);
 	}
 
 	/**
@@ -71,17 +90,17 @@ public abstract class Node implements Primable, Congruent<Node> { // Generics ar
 	 * @param progress the progress of the node
 	 * @return true if the progress was updated
 	 * @throws IllegalArgumentException if the progress is not between 0 and 1
+	 * @throws IllegalStateException    if the node is not primed with an overseer
 	 * @see #setUsable()
 	 */
 	public final boolean setProgress(double progress) {
 		if (progress < 0 || progress > 1) {
 			throw new IllegalArgumentException("Progress " + progress + " not between 0 and 1!");
 		}
-		if (progress < this.progress) {
+		if (!requireOverseer().setProgress(this, progress)) {
 			return false;
 		}
 
-		this.progress = progress;
 		if (progress == 1) setUsable();
 		return true;
 	}
@@ -103,14 +122,33 @@ public abstract class Node implements Primable, Congruent<Node> { // Generics ar
 	}
 
 	/**
-	 * Resets the node to its initial state. The node will be set to not {@code usable} and have progress of 0. The
-	 * overseer will be
-	 * set to null.
+	 * Returns the overseer running on the current thread if this node is in its graph, or else the overseer this node
+	 * was primed with.
+	 *
+	 * @return the overseer of this node, or null if there is none
+	 */
+	protected Overseer getOverseer() {
+		Overseer current = Overseer.current();
+		if (current != null && current.plan.indexOf(this) != -1) {
+			return current;
+		}
+		return overseer;
+	}
+
+	Overseer requireOverseer() {
+		Overseer overseer = getOverseer();
+		if (overseer == null) {
+			throw new IllegalStateException("Node " + this + " is not primed with an overseer!");
+		}
+		return overseer;
+	}
+
+	/**
+	 * Resets the node to its initial state. The overseer will be set to null. The progress and usability of the node
+	 * are reset by {@link Overseer#resetGraph()}.
 	 */
 	@Override
 	public void reset() {
-		usable = false;
-		progress = 0;
 		overseer = null;
 	}
 
@@ -176,4 +176,21 @@ public final class Nodespace {
 			throw new RuntimeException("Multiple nodes with the same datum name");
 		}
 	}
+
+	/**
+	 * Mints a typed key for the datum with the given name.
+	 *
+	 * @param datumName the datum name
+	 * @param type      the type of the datum
+	 * @param <T>       the type of the datum
+	 * @return the key of the datum
+	 * @throws IllegalArgumentException if no node in this nodespace has the datum
+	 * @see DatumKey
+	 */
+	public <T> DatumKey<T> keyOf(String datumName, Class<T> type) {
+		if (nodesWithDatum(datumName).isEmpty()) {
+			throw new IllegalArgumentException("No node in this nodespace has datum " + datumName + "!");
+		}
+		return new DatumKey<>(datumName, type);
+	}
 }
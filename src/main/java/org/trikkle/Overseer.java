@@ -1,14 +1,16 @@
 package org.trikkle;
 
 import org.trikkle.structs.StrictConcurrentHashMap;
-import org.trikkle.structs.StrictHashMap;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveAction;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * A class that manages the execution of {@link Graph}s. It is responsible for running the graph and keeping track of
@@ -26,6 +28,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Concurrent execution of overlapping graphs leads to unexpected behavior and is prevented by the overseer. All locks
  * on {@link Primable}s are acquired by the overseer during construction and only released when the overseer ends.
  * <p>
+ * The run state of every arc and node (status, progress, usability) is kept by the overseer itself, in arrays indexed
+ * by a {@link Plan}. An overseer constructed with {@link #Overseer(Plan)} therefore neither locks nor primes any
+ * {@link Primable}, and many such overseers may run the same plan concurrently. Arcs and nodes find the overseer
+ * running them through the thread that runs them.
+ * <p>
  * A "tick" passes every time the overseer checks for runnable links and runs them. The frequency and timing of going
  * to the next tick, or "ticktocking" was a subject of much deliberation. The current implementation is to ticktock
  * sparsely and economically, only when
@@ -35,6 +42,14 @@ import java.util.concurrent.atomic.AtomicInteger;
  * </ol>
  * <p>
  * This allows the overseer to tick only when needed and avoids the overhead of polling.
+ * <p>
+ * In parallel mode, the iterative ticktock loop is done away with altogether. Every arc is submitted to an
+ * {@link Executor} (see {@link #setExecutor(Executor)}), and the thread that finishes an arc ticktocks the overseer
+ * afterward. {@link #start()} blocks until the overseer ends, while {@link #startAsync()} returns a future instead.
+ * <p>
+ * By default, every ticktock checks every unfinished link in the graph for runnability. With
+ * {@link #setDependencyCounting(boolean)}, the overseer instead keeps a counter of unmet dependencies for each link and
+ * only checks the links whose counters have reached zero.
  *
  * @see Graph
  * @see Node
@@ -44,18 +59,74 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @since 0.1.0
  */
 public final class Overseer {
+	private static final ThreadLocal<Overseer> CURRENT = new ThreadLocal<>();
+	private static final ArcStatus[] STATUSES = ArcStatus.values();
+	// the sign bit of the progress, which is never negative. Non-negative doubles are ordered like their bits.
+	private static final long USABLE = Long.MIN_VALUE;
+	private static final long FILLED = Double.doubleToRawLongBits(1) | USABLE; // progress 1 and usable
 	final Graph g;
-	private final Map<String, Object> cache = new StrictConcurrentHashMap<>();
-	private final Collection<Link> linkQueue = new ConcurrentLinkedQueue<>();
+	final Plan plan;
+	private final boolean primed; // whether the primables are locked and primed with this overseer
+	private final DatumStore cache;
+	private final Collection<Integer> linkQueue = new ConcurrentLinkedQueue<>(); // arc indices
+	private final Collection<Integer> readyQueue = new ConcurrentLinkedQueue<>(); // links with no unmet dependencies
+	private final Set<Node> usableNodes = ConcurrentHashMap.newKeySet(); // nodes whose dependents have been notified
+	private AtomicIntegerArray unmetDependencies; // indexed by arc
+	private final Set<Node> endedNodes = ConcurrentHashMap.newKeySet(); // target nodes at progress 1
+	private AtomicInteger endingNodesRemaining;
+	private boolean[] targets; // indexed by node, the nodes that must reach progress 1 for the overseer to end
+	private boolean[] demanded; // indexed by arc, only with compute(Set): the arcs the targets need
+	private boolean[] burstRecorded; // indexed by arc
+	private CompletableFuture<Map<String, Object>> completion; // set when arcs are dispatched to the executor
+	private final AtomicInteger inFlight = new AtomicInteger(0); // tasks submitted to the executor that have not ended
+	private final Set<Resource> awaitedResources = ConcurrentHashMap.newKeySet(); // resources with idle arcs waiting
+	// only for sequential overseers: a resource an arc waited on, and whether any arc ran, during the last tick
+	private volatile Resource blockedOn;
+	private volatile boolean ranArcs;
+	private final Queue<Node> events = new ConcurrentLinkedQueue<>(); // changed nodes, only for the event loop
+	private final AtomicBoolean draining = new AtomicBoolean(false); // whether a thread is draining the events
+
+	// run state, indexed by plan. Statuses and node states only change by compare-and-set, so threads claiming arcs or
+	// progressing nodes never wait for each other. The times are written by the thread that changed the status and read
+	// once the run has ended.
+	private final AtomicIntegerArray statuses; // ordinals of ArcStatus
+	private final long[] startTimes, endTimes;
+	private final AtomicLongArray nodeStates; // the bits of the progress, with USABLE set once the node is usable
+	private final AtomicIntegerArray datumCounts;
+
 	private AtomicInteger tick;
 	private Queue<Collection<Link>> linkTrace;
 	private boolean started = false;
+	private boolean driven = false; // whether the arcs are run by a batch instead of by ticktocks
 
 	private boolean unsafeOnRecursive = false;
 	private boolean logging = false;
 	private Observer observer = null;
 	private boolean parallel = true;
+	private boolean dependencyCounting = false;
 	private int parallelThreshold = 2;
+	private Executor executor = DefaultExecutor.POOL;
+	private boolean virtualThreads = false;
+	private boolean eventLoop = false;
+	private boolean criticalPathScheduling = false;
+	private BurstHistory burstHistory = null;
+	private boolean eviction = false;
+	private Set<String> pinnedDatums = Set.of();
+	private AtomicIntegerArray consumersRemaining; // indexed by node, only with eviction. -1 if never evicted
+	private long spillThreshold = -1; // in bytes
+	private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+	private Path checkpointFile = null;
+	private DatumCodec checkpointCodec = DatumCodec.SERIALIZATION;
+	private long checkpointInterval = TimeUnit.MINUTES.toNanos(1);
+	private ScheduledFuture<?> checkpointTimer;
+	private Journal journal = null;
+	private final AtomicBoolean checkpointing = new AtomicBoolean(false); // whether a periodic checkpoint is running
+	private final AtomicInteger hedgeCount = new AtomicInteger(0);
+	private long deadline = -1; // in nanoseconds after the start
+	private Set<Thread> runningThreads; // threads running arcs, only tracked with timeouts, guarded by itself
+	private ScheduledFuture<?> deadlineTimer;
+	private volatile OverseerTimeoutException timeout; // set once the deadline or the timeout of an arc passes
+	private double[] priorities; // indexed by arc, only with critical-path scheduling
 	private Map<String, Object> resultCache;
 
 	/**
@@ -70,150 +141,1415 @@ public final class Overseer {
 
 	/**
 	 * Constructs an overseer with the given graph and initial cache. All {@link Primable}s will be locked and primed
-	 * with this overseer.
+	 * with this overseer. Discrete nodes whose datums are all in the initial cache start at progress 1, and arcs whose
+	 * output nodes all start at progress 1 start as finished.
 	 *
 	 * @param graph        the graph to be executed
 	 * @param initialCache the initial cache, possibly from another overseer
 	 */
 	public Overseer(Graph graph, Map<String, Object> initialCache) {
-		this.g = graph;
+		this(graph.getPlan(), initialCache, true);
+	}
+
+	/**
+	 * Constructs an overseer that executes the given plan. The initial cache is empty. No {@link Primable} is locked
+	 * or primed, so any number of overseers may run the same plan at the same time.
+	 * <p>
+	 * Arcs and nodes can only find this overseer from the threads it runs them on. Arcs with
+	 * {@link org.trikkle.annotations.Input} or {@link org.trikkle.annotations.Output} fields are run as a shallow copy
+	 * of their own, so that concurrent overseers never see each other's fields. Arcs that keep other state in their own
+	 * fields must not be shared between overseers that run concurrently.
+	 *
+	 * @param plan the plan to be executed
+	 */
+	public Overseer(Plan plan) {
+		this(plan, null);
+	}
+
+	/**
+	 * Constructs an overseer that executes the given plan with the given initial cache. No {@link Primable} is locked
+	 * or primed.
+	 *
+	 * @param plan         the plan to be executed
+	 * @param initialCache the initial cache, possibly from another overseer
+	 * @see #Overseer(Plan)
+	 */
+	public Overseer(Plan plan, Map<String, Object> initialCache) {
+		this(plan, initialCache, false);
+	}
+
+	private Overseer(Plan plan, Map<String, Object> initialCache, boolean primed) {
+		this.plan = plan;
+		this.g = plan.graph;
+		this.primed = primed;
+		this.cache = new DatumStore(plan);
 		if (initialCache != null) {
 			this.cache.putAll(initialCache); // doesn't check that the initialCache has datums that are actually in the graph
 		}
-		linkQueue.addAll(g.links);
+		for (int a = 0; a < plan.arcCount(); a++) {
+			linkQueue.add(a);
+		}
+		targets = plan.ending;
 
-		// undoes previous overseer's changes
-		// Prime nodes and arcs with this overseer
-		for (Primable primable : g.primables) {
-			primable.getLock().lock();
+		statuses = new AtomicIntegerArray(plan.arcCount());
+		startTimes = new long[plan.arcCount()];
+		endTimes = new long[plan.arcCount()];
+		nodeStates = new AtomicLongArray(plan.nodeCount());
+		datumCounts = new AtomicIntegerArray(plan.nodeCount());
+		resetState();
+
+		if (primed) {
+			// Prime nodes and arcs with this overseer
+			for (Primable primable : g.primables) {
+				primable.getLock().lock();
+			}
+			for (Primable primable : g.primables) {
+				primable.primeWith(this);
+			}
 		}
-		for (Primable primable : g.primables) {
-			primable.primeWith(this);
+	}
+
+	/**
+	 * Constructs an overseer that resumes the graph from a checkpoint. The datums of the checkpoint are the initial
+	 * cache, the arcs that had finished start as finished, and their output nodes start at progress 1, except for nodes
+	 * that another arc had not finished filling. Those nodes are filled again, by all of their producers. All
+	 * {@link Primable}s will be locked and primed with this overseer.
+	 *
+	 * @param graph      the graph the checkpoint was taken of, built from the same links in the same order
+	 * @param checkpoint the checkpoint
+	 * @return the overseer, ready to be started
+	 * @throws IllegalArgumentException if the checkpoint was taken of another graph
+	 * @see #setCheckpointFile(Path)
+	 */
+	public static Overseer resume(Graph graph, Checkpoint checkpoint) {
+		Overseer overseer = new Overseer(graph.getPlan(), checkpoint.getCache(), true);
+		overseer.restore(checkpoint);
+		return overseer;
+	}
+
+	/**
+	 * Constructs an overseer that resumes the plan from a checkpoint, without priming any {@link Primable}.
+	 *
+	 * @param plan       the plan of the graph the checkpoint was taken of
+	 * @param checkpoint the checkpoint
+	 * @return the overseer, ready to be started
+	 * @throws IllegalArgumentException if the checkpoint was taken of another graph
+	 * @see #resume(Graph, Checkpoint)
+	 */
+	public static Overseer resume(Plan plan, Checkpoint checkpoint) {
+		Overseer overseer = new Overseer(plan, checkpoint.getCache(), false);
+		overseer.restore(checkpoint);
+		return overseer;
+	}
+
+	private void restore(Checkpoint checkpoint) {
+		if (checkpoint.fingerprint != Checkpoint.fingerprintOf(plan)) {
+			throw new IllegalArgumentException("Checkpoint was not taken of this graph!");
+		}
+		boolean[] finished = new boolean[plan.arcCount()];
+		for (int a : checkpoint.finishedArcs) {
+			finished[a] = true;
+		}
+		// like checkpoint(), a node is only complete if all of its producers finished. A finished arc with an
+		// incomplete output node is run again, as the datums it returned to that node were left out of the checkpoint.
+		boolean[] complete = new boolean[plan.nodeCount()];
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int n = 0; n < plan.nodeCount(); n++) {
+				complete[n] = true;
+				for (int a : plan.producers[n]) {
+					if (!finished[a]) complete[n] = false;
+				}
+			}
+			for (int a = 0; a < plan.arcCount(); a++) {
+				for (int n : plan.outputNodes[a]) {
+					if (finished[a] && !complete[n]) {
+						finished[a] = false;
+						changed = true;
+					}
+				}
+			}
+		}
+		for (int a = 0; a < plan.arcCount(); a++) {
+			statuses.set(a, (finished[a] ? ArcStatus.FINISHED : ArcStatus.IDLE).ordinal());
+		}
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (plan.producers[n].length == 0) continue;
+			if (complete[n]) { // complete even if their datums were not in the checkpoint
+				datumCounts.set(n, plan.nodes[n].datumNames.size());
+				nodeStates.set(n, FILLED);
+			} else { // to be filled again by its producers
+				datumCounts.set(n, 0);
+				nodeStates.set(n, 0);
+				if (plan.nodes[n] instanceof StreamNode) continue;
+				for (String datumName : plan.nodes[n].datumNames) {
+					cache.discard(datumName);
+				}
+			}
+		}
+		for (int n : plan.startingNodes) { // no longer needed, so they need not be populated again
+			boolean consumed = plan.dependents[n].length > 0;
+			for (int a : plan.dependents[n]) {
+				if (status(a) != ArcStatus.FINISHED) consumed = false;
+			}
+			if (consumed) nodeStates.set(n, FILLED);
+		}
+	}
+
+	/**
+	 * Sets every arc to idle and every node to progress 0. Nodes whose datums are all already in the cache (e.g., from
+	 * an initial cache) are set to progress 1 instead, and arcs whose output nodes are all at progress 1 are set to
+	 * finished. Stream nodes are given an empty queue in the cache if they do not have one.
+	 */
+	private void resetState() {
+		for (int a = 0; a < plan.arcCount(); a++) {
+			statuses.set(a, ArcStatus.IDLE.ordinal());
+		}
+		Arrays.fill(startTimes, -1);
+		Arrays.fill(endTimes, -1);
+		usableNodes.clear();
+		for (int i = 0; i < plan.nodes.length; i++) {
+			datumCounts.set(i, 0);
+			nodeStates.set(i, 0);
+			Node node = plan.nodes[i];
+			if (node instanceof StreamNode) {
+				cache.putIfAbsent(node.datumNames.iterator().next(), new ConcurrentLinkedQueue<>());
+			} else if (node instanceof DiscreteNode && cache.keySet().containsAll(node.datumNames)) {
+				datumCounts.set(i, node.datumNames.size());
+				nodeStates.set(i, FILLED);
+			}
+		}
+		for (int i = 0; i < plan.arcs.length; i++) {
+			if (plan.outputNodes[i].length > 0 && outputNodesRemaining(i) == 0) {
+				statuses.set(i, ArcStatus.FINISHED.ordinal());
+			}
+		}
+	}
+
+	/**
+	 * Constructs an overseer that takes over the cache and run state of an ended overseer, so that only the given
+	 * nodes and arcs are run again. The state of the stale nodes and arcs is reset in place, and the datums of the
+	 * stale nodes are removed from the cache, so the cost is proportional to the stale part of the plan. The previous
+	 * overseer must not be used afterward, but its result cache is kept.
+	 *
+	 * @param previous   an ended overseer that was constructed from a plan
+	 * @param staleNodes the indices of the nodes to fill again
+	 * @param staleArcs  the indices of the arcs to run again
+	 */
+	Overseer(Overseer previous, int[] staleNodes, int[] staleArcs) {
+		previous.getResultCache(); // a copy, taken before the cache changes
+		this.plan = previous.plan;
+		this.g = plan.graph;
+		this.primed = false;
+		this.cache = previous.cache;
+		this.statuses = previous.statuses;
+		this.startTimes = previous.startTimes;
+		this.endTimes = previous.endTimes;
+		this.nodeStates = previous.nodeStates;
+		this.datumCounts = previous.datumCounts;
+		targets = plan.ending;
+		// the arcs that are not run again were recorded by the overseer that ran them
+		burstRecorded = previous.burstRecorded;
+		if (burstRecorded == null) {
+			burstRecorded = new boolean[plan.arcCount()];
+			Arrays.fill(burstRecorded, true);
+		}
+
+		for (int n : staleNodes) {
+			datumCounts.set(n, 0);
+			nodeStates.set(n, 0);
+			Node node = plan.nodes[n];
+			for (String datumName : node.datumNames) {
+				cache.discard(datumName);
+			}
+			if (node instanceof StreamNode) cache.put(node.datumNames.iterator().next(), new ConcurrentLinkedQueue<>());
+		}
+		for (int a : staleArcs) {
+			statuses.set(a, ArcStatus.IDLE.ordinal());
+			startTimes[a] = -1;
+			endTimes[a] = -1;
+			burstRecorded[a] = false;
+			linkQueue.add(a); // the others have finished
 		}
 	}
 
 	/**
 	 * Resets the graph (nodes and arcs) to its initial state. This method is useful for running the same graph multiple
 	 * times with different input data. The cache is not affected.
+	 * <p>
+	 * If this overseer was constructed from a {@link Plan}, only the run state kept by this overseer is reset.
+	 * {@link Primable#reset()} is not called as the primables may be in use by other overseers.
 	 */
 	public void resetGraph() {
+		resetState();
+		if (!primed) return;
 		for (Primable primable : g.primables) {
 			primable.reset();
 			primable.primeWith(this);
 		}
 	}
 
+	/**
+	 * Returns the overseer that is running on the current thread, i.e., the overseer that is running an arc or has been
+	 * started on this thread. Returns null if there is none.
+	 *
+	 * @return the overseer running on the current thread
+	 */
+	static Overseer current() {
+		return CURRENT.get();
+	}
+
+	private Overseer bind() {
+		Overseer previous = CURRENT.get();
+		CURRENT.set(this);
+		return previous;
+	}
+
+	private static void unbind(Overseer previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
 	/**
 	 * Starts the overseer by running some checks and then ticking until the graph has all ending nodes at progress 1
 	 * ({@link Node#getProgress()}) and all arcs are {@link ArcStatus#FINISHED}. Blocks the current thread until the
 	 * graph has ended.
+	 * <p>
+	 * If {@link #isParallel()} is true, the arcs are run on the executor ({@link #getExecutor()}) and the current
+	 * thread only waits. Exceptions thrown by arcs are rethrown here.
 	 *
 	 * @throws IllegalStateException if the overseer has already started
 	 * @throws IllegalStateException if the starting nodes are not fully populated
 	 * @throws IllegalStateException if the overseer construction and start() are called in different threads
+	 * @throws IllegalStateException if the overseer is parallel and no arc is running or runnable, but the overseer has
+	 *                               not ended
 	 */
 	public void start() {
+		prepareStart();
+		if (parallel) {
+			completion = new CompletableFuture<>();
+			completion.whenComplete((result, t) -> stopTimers());
+			dispatchFirst();
+			try {
+				join(completion);
+			} finally {
+				stopTimers(); // the callback may run after join returns
+			}
+		} else {
+			Overseer previous = bind();
+			try {
+				runSequentially();
+			} finally {
+				unbind(previous);
+				stopTimers();
+			}
+			recordBurstTimes();
+		}
+		onEnd();
+	}
+
+	/**
+	 * The iterative ticktock of a sequential overseer, until it has ended or timed out.
+	 */
+	private void runSequentially() {
+		try {
+			while (!hasEnded()) {
+				if (timeout != null) break;
+				blockedOn = null;
+				ranArcs = false;
+				ticktock(null);
+				Resource resource = blockedOn;
+				if (resource != null) {
+					if (!ranArcs) parkForPermit(resource);
+					resource.wakeNext(); // in case this overseer was woken but took no permit
+				}
+			}
+			if (timeout != null) throw timeout; // even if the arc that overran has since returned
+		} catch (RuntimeException | Error e) {
+			if (timeout == null) throw e;
+			Thread.interrupted(); // the interrupt was for the arc, which has returned
+			throw timeout;
+		}
+	}
+
+	/**
+	 * Starts the overseer without blocking the current thread. Runs the same checks as {@link #start()}, then submits
+	 * every runnable arc to the executor ({@link #getExecutor()}). Whichever thread finishes an arc ticktocks the
+	 * overseer afterward, so no thread waits or spins while arcs are running.
+	 * <p>
+	 * The returned future is completed with the result cache ({@link #getResultCache()}) once all ending nodes are at
+	 * progress 1 and the arcs already running have returned. It is completed exceptionally if an arc throws, or if no
+	 * arc is running and none can be run although the overseer has not ended. Arcs that hand datums to other threads
+	 * which then add them to nodes after the arc has finished are not supported.
+	 * <p>
+	 * If {@link #isParallel()} is false, the whole graph is run sequentially in one task of the executor.
+	 * <p>
+	 * If this overseer was constructed from a {@link Graph}, the locks of its {@link Primable}s belong to the current
+	 * thread and are released before this method returns.
+	 *
+	 * @return a future of the result cache
+	 * @throws IllegalStateException if the overseer has already started
+	 * @throws IllegalStateException if the starting nodes are not fully populated
+	 * @throws IllegalStateException if the overseer construction and startAsync() are called in different threads
+	 */
+	public CompletableFuture<Map<String, Object>> startAsync() {
+		prepareStart();
+		completion = new CompletableFuture<>();
+		completion.whenComplete((result, t) -> stopTimers());
+		onEnd(); // this thread does not wait for the overseer to end
+		if (hasEnded()) {
+			finish();
+			return completion;
+		}
+
+		if (!parallel) {
+			try {
+				executor.execute(() -> {
+					Overseer previous = bind();
+					try {
+						runSequentially();
+						finish();
+					} catch (Throwable t) {
+						completion.completeExceptionally(t);
+					} finally {
+						unbind(previous);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				completion.completeExceptionally(e);
+			}
+			return completion;
+		}
+
+		dispatchFirst();
+		return completion;
+	}
+
+	/**
+	 * @return the executor overseers run arcs on unless another is set, see {@link #setExecutor(Executor)}
+	 */
+	static Executor defaultExecutor() {
+		return DefaultExecutor.POOL;
+	}
+
+	/**
+	 * Waits for the future and rethrows the exception it completed with, if any, as is.
+	 */
+	static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * The first ticktock of a parallel overseer. Every runnable arc is submitted to the executor.
+	 */
+	private void dispatchFirst() {
+		inFlight.incrementAndGet(); // the first ticktock counts as a task so that the overseer cannot stall during it
+		Overseer previous = bind();
+		try {
+			ticktock(null);
+		} catch (Throwable t) {
+			completion.completeExceptionally(t);
+		} finally {
+			unbind(previous);
+			releaseTask();
+		}
+	}
+
+	private void prepareStart() {
 		if (started) {
 			throw new IllegalStateException("Overseer started before!");
 		}
-		// check population of startingNodes
-		for (Node startingNode : g.startingNodes) {
-			if (!startingNode.isUsable()) {
+		checkStartingNodes();
+		// check that overseer and .start() are called in the same thread
+		if (primed) {
+			for (Primable primable : g.primables) {
+				if (!primable.getLock().isHeldByCurrentThread()) {
+					throw new IllegalStateException(
+							"Overseer construction and start() must be called in the same thread!");
+				}
+			}
+		}
+
+		if (dependencyCounting) {
+			countDependencies();
+		}
+		countEndingNodes();
+		if (criticalPathScheduling) {
+			rankByCriticalPath();
+		}
+		// later calls of compute(Set) may need any datum, and checkpoints must hold what unfinished arcs need
+		if (eviction && demanded == null && checkpointFile == null) {
+			countConsumers();
+		}
+
+		if (logging) {
+			tick = new AtomicInteger(0);
+			linkTrace = new ConcurrentLinkedQueue<>();
+		}
+		boolean timed = deadline != -1;
+		for (Arc arc : plan.arcs) {
+			if (arc.getTimeout(TimeUnit.NANOSECONDS) != -1) timed = true;
+		}
+		if (timed) runningThreads = new HashSet<>();
+		started = true;
+		if (deadline != -1) {
+			deadlineTimer = Timer.SCHEDULER.schedule(() -> timeOut(null), deadline, TimeUnit.NANOSECONDS);
+		}
+		startCheckpointTimer();
+	}
+
+	private void startCheckpointTimer() {
+		if (checkpointFile == null) return;
+		synchronized (checkpointing) {
+			checkpointTimer = Timer.SCHEDULER.scheduleWithFixedDelay(this::checkpointLater, checkpointInterval,
+					checkpointInterval, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Writes a checkpoint on a virtual thread of its own, so that the timer thread is free for timeouts. Checkpoints
+	 * that fail are reported by the uncaught exception handler of that thread, and do not fail the overseer.
+	 */
+	private void checkpointLater() {
+		synchronized (checkpointing) {
+			// stopped, or the last one is still being written
+			if (checkpointTimer == null || checkpointing.get()) return;
+			checkpointing.set(true);
+		}
+		Thread.ofVirtual().name("trikkle-checkpoint").start(() -> {
+			try {
+				checkpoint();
+			} finally {
+				synchronized (checkpointing) {
+					checkpointing.set(false);
+					checkpointing.notifyAll();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes a checkpoint of this overseer to the checkpoint file. The checkpoint holds the arcs that have finished and
+	 * the datums of the nodes whose producing arcs have all finished, and of the starting nodes. Called periodically
+	 * while the overseer runs, and can also be called at any other time, e.g. after the overseer failed.
+	 *
+	 * @throws IllegalStateException if no checkpoint file was set
+	 * @throws UncheckedIOException  if the checkpoint cannot be written, or a datum cannot be encoded
+	 * @see #setCheckpointFile(Path)
+	 */
+	public void checkpoint() {
+		Path file = checkpointFile;
+		if (file == null) {
+			throw new IllegalStateException("No checkpoint file was set!");
+		}
+		// the statuses are read before the datums, so the outputs of every finished arc are there
+		boolean[] finished = new boolean[plan.arcCount()];
+		for (int a = 0; a < plan.arcCount(); a++) {
+			finished[a] = status(a) == ArcStatus.FINISHED;
+		}
+		Map<String, Object> datums = new HashMap<>();
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (plan.nodes[n] instanceof StreamNode) continue;
+			boolean complete = true; // partial nodes are left out, as their producers will return the datums again
+			for (int a : plan.producers[n]) {
+				if (!finished[a]) complete = false;
+			}
+			if (!complete) continue;
+			for (String datumName : plan.nodes[n].datumNames) {
+				Object datum = cache.lookup(datumName);
+				if (datum != null) datums.put(datumName, DatumStore.unwrap(datum));
+			}
+		}
+		for (Map.Entry<String, Object> entry : cache.entrySet()) {
+			if (plan.slotOf(entry.getKey()) == -1) datums.put(entry.getKey(), entry.getValue());
+		}
+		synchronized (checkpointing) { // a periodic checkpoint may be writing the same file
+			try {
+				Checkpoint.write(file, plan, finished, datums, checkpointCodec);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Stops dispatching arcs, interrupts the threads running arcs, and fails the overseer with the partial cache.
+	 *
+	 * @param arc the arc that timed out, or null if the deadline passed
+	 */
+	private void timeOut(Arc arc) {
+		synchronized (runningThreads) {
+			if (timeout != null || hasEnded()) return;
+			String message = arc == null ?
+					"Overseer passed its deadline of " + TimeUnit.NANOSECONDS.toMillis(deadline) + " ms!" :
+					"Arc " + arc + " timed out after " + arc.getTimeout(TimeUnit.MILLISECONDS) + " ms!";
+			timeout = new OverseerTimeoutException(message, getCacheCopy(), arc);
+			// before the interrupts, as an interrupted arc that returns could otherwise end the overseer first
+			if (completion != null) completion.completeExceptionally(timeout);
+			for (Thread thread : runningThreads) {
+				thread.interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Also waits for a periodic checkpoint that is being written, so that none is written once this returns.
+	 */
+	private void stopTimers() {
+		if (deadlineTimer != null) deadlineTimer.cancel(false);
+		synchronized (checkpointing) {
+			if (checkpointTimer == null) return;
+			checkpointTimer.cancel(false);
+			checkpointTimer = null;
+			boolean interrupted = false;
+			while (checkpointing.get()) {
+				try {
+					checkpointing.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+
+	private void checkStartingNodes() {
+		for (int n : plan.startingNodes) {
+			if (!usable(n) && isNeeded(n)) {
 				throw new IllegalStateException(
-						"Starting node " + startingNode + " is not fully populated! All unfilled datums: " +
+						"Starting node " + plan.nodes[n] + " is not fully populated! All unfilled datums: " +
 								getUnfilledStartingDatumNames());
 			}
 		}
-		// check that overseer and .start() are called in the same thread
-		for (Primable primable : g.primables) {
-			if (!primable.getLock().isHeldByCurrentThread()) {
-				throw new IllegalStateException(
-						"Overseer construction and start() must be called in the same thread!");
+	}
+
+	/**
+	 * @return true if the node is a target, or a dependency of an arc that must run for the targets
+	 */
+	private boolean isNeeded(int n) {
+		if (demanded == null || targets[n]) return true;
+		for (int a : plan.dependents[n]) {
+			if (demanded[a]) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the given datums and only what they need. The arcs run are the upstream closure of the nodes of the
+	 * datums, stopping at nodes that are already usable, so datums computed by earlier calls are reused rather than
+	 * computed again. Ending nodes that the datums do not need are not computed.
+	 * <p>
+	 * The first call starts the overseer, and can be followed by any number of calls for other datums. Only the
+	 * starting nodes that the datums need have to be populated. If this overseer was constructed from a {@link Graph},
+	 * the locks of its {@link Primable}s are released after the first call.
+	 * <p>
+	 * Periodic checkpoints are only taken while a call is running. The deadline ({@link #setDeadline(long, TimeUnit)})
+	 * only applies to the first call.
+	 *
+	 * @param datumNames the names of the datums to compute
+	 * @return the datums, by name
+	 * @throws IllegalArgumentException if a datum is not in the graph of this overseer
+	 * @throws IllegalStateException    if the overseer was started by {@link #start()} or {@link #startAsync()}
+	 * @throws IllegalStateException    if a starting node that the datums need is not fully populated
+	 */
+	public synchronized Map<String, Object> compute(Set<String> datumNames) {
+		boolean[] nextTargets = new boolean[plan.nodeCount()];
+		for (String datumName : datumNames) {
+			Node node = getNodeOfDatum(datumName);
+			if (node == null) {
+				throw new IllegalArgumentException("Datum " + datumName + " is not in the graph of this overseer!");
 			}
+			nextTargets[indexOf(node)] = true;
+		}
+		boolean first = !started;
+		if (!first && demanded == null) {
+			throw new IllegalStateException("Overseer started before!");
 		}
 
-		started = true;
+		targets = nextTargets;
+		if (demanded == null) demanded = new boolean[plan.arcCount()];
+		demand();
+		if (first) {
+			prepareStart();
+		} else {
+			checkStartingNodes();
+			countEndingNodes();
+			startCheckpointTimer();
+		}
+
+		if (!hasEnded()) {
+			if (parallel) {
+				completion = new CompletableFuture<>();
+				completion.whenComplete((result, t) -> stopTimers());
+				dispatchFirst();
+				try {
+					join(completion);
+				} finally {
+					stopTimers(); // the callback may run after join returns
+				}
+			} else {
+				Overseer previous = bind();
+				try {
+					runSequentially();
+				} finally {
+					unbind(previous);
+					stopTimers();
+				}
+				recordBurstTimes();
+			}
+		} else {
+			stopTimers();
+		}
+		if (first) onEnd();
+
+		Map<String, Object> datums = new HashMap<>();
+		for (String datumName : datumNames) {
+			datums.put(datumName, cache.get(datumName));
+		}
+		return datums;
+	}
+
+	/**
+	 * Marks the arcs of the upstream closure of the unfinished targets as demanded, like
+	 * {@link Graph#findPrunedGraphFor(Set)} but without building a graph, and stopping at usable nodes.
+	 */
+	private void demand() {
+		boolean[] visited = new boolean[plan.nodeCount()];
+		Deque<Integer> nodeStack = new ArrayDeque<>();
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (targets[n] && progress(n) != 1) nodeStack.push(n);
+		}
+		while (!nodeStack.isEmpty()) {
+			int n = nodeStack.pop();
+			if (visited[n]) continue;
+			visited[n] = true;
+			for (int a : plan.producers[n]) {
+				demanded[a] = true;
+				for (int dependency : plan.dependencies[a]) {
+					if (!usable(dependency)) nodeStack.push(dependency);
+				}
+			}
+		}
+	}
+
+	private void ticktock(Node caller) {
+		if (eventLoop) {
+			tickEvents(caller);
+		} else {
+			runNow(poll(caller, false));
+		}
+	}
+
+	/**
+	 * All output nodes having progress 1 is equivalent to the arc being done.
+	 */
+	private void finishProducers(Node node) {
+		int n = indexOf(node);
+		if (progress(n) != 1) return;
+		for (int a : plan.producers[n]) {
+			// maybe another one of its output nodes got to it first
+			if (status(a) == ArcStatus.FINISHED) continue;
+			if (outputNodesRemaining(a) == 0) {
+				setStatus(plan.arcs[a], ArcStatus.FINISHED);
+			}
+		}
+	}
+
+	/**
+	 * The ticktock of the event loop. Node changes are posted as events, and only one thread at a time drains them.
+	 * Arcs are run by the draining thread after it returns from the arc that posted the events, so the stack does not
+	 * grow with the depth of the graph. All events posted while an arc runs are coalesced into one tick.
+	 *
+	 * @param caller the node whose state changed, or null if this is an iterative ticktock
+	 */
+	private void tickEvents(Node caller) {
+		if (!started || driven) return;
+		if (caller != null) {
+			if (completion != null && parallel && current() == this) {
+				// an arc running in a task; the tick after the arc will find the links that this node made runnable
+				finishProducers(caller);
+				return;
+			}
+			events.add(caller);
+		} else {
+			if (!draining.compareAndSet(false, true)) return;
+			try {
+				runNow(poll(null, false));
+			} finally {
+				draining.set(false);
+			}
+		}
+
+		while (!events.isEmpty()) {
+			if (!draining.compareAndSet(false, true)) return; // the draining thread will see the events
+			try {
+				while (true) {
+					Node last = null;
+					for (Node event; (event = events.poll()) != null; ) {
+						if (last != null) finishProducers(last);
+						last = event;
+					}
+					if (last == null) break;
+					runNow(poll(last, false));
+				}
+			} finally {
+				draining.set(false);
+			}
+		}
+	}
+
+	private void runNow(Collection<Link> linksNow) {
+		if (completion != null && parallel) {
+			for (Link link : linksNow) {
+				submit(link.getArc());
+			}
+		} else {
+			if (!linksNow.isEmpty()) ranArcs = true;
+			for (Link link : linksNow) {
+				runArc(link.getArc());
+			}
+		}
+	}
+
+	/**
+	 * Checks for runnable links and marks them as {@link ArcStatus#STAND_BY}. This is one tick.
+	 *
+	 * @param caller  the node whose state changed, or null if this is an iterative ticktock
+	 * @param postArc whether this is the ticktock a task does after its arc. Such ticktocks are only logged if they
+	 *                find links to run, as they stand in for the iterative ticktocks of a sequential overseer.
+	 * @return the links to run now
+	 */
+	private Collection<Link> poll(Node caller, boolean postArc) {
+		if (!started) return List.of(); // to prevent adding datums manually from triggering a ticktock
+		if (driven) return List.of(); // a batch decides when arcs are run
+		if (hasEnded()) return List.of();
+		if (completion != null && completion.isDone()) return List.of(); // an arc has thrown
+		if (timeout != null) return List.of();
+
+		if (caller != null) finishProducers(caller);
+
+		// with dependency counting, every link in the ready queue is known to have all of its dependencies usable
+		Collection<Integer> candidates = dependencyCounting ? readyQueue : linkQueue;
+		List<Link> linksNow = new ArrayList<>();
+		for (Iterator<Integer> iterator = candidates.iterator(); iterator.hasNext(); ) {
+			int a = iterator.next();
+			if (status(a) == ArcStatus.FINISHED) { // lazily remove finished links
+				iterator.remove();
+				continue;
+			}
+			if (demanded != null && !demanded[a]) continue; // not needed for the datums being computed
+			if (dependencyCounting || runnable(a)) {
+				Arc arc = plan.arcs[a];
+				if (!unsafeOnRecursive && caller != null && !arc.isSafe()) {
+					continue;
+				}
+				// only the thread that claims the arc adds it to its linksNow
+				if (status(a) != ArcStatus.IDLE ||
+						!statuses.compareAndSet(a, ArcStatus.IDLE.ordinal(), ArcStatus.STAND_BY.ordinal())) {
+					continue;
+				}
+				Resource resource = arc.getResource();
+				if (resource != null && !resource.tryAcquire()) {
+					statuses.set(a, ArcStatus.IDLE.ordinal()); // stays idle until a permit is given back
+					awaitPermit(resource);
+					continue;
+				}
+				linksNow.add(plan.links[a]);
+			}
+		}
+
+		if (postArc && linksNow.isEmpty()) return linksNow;
+		if (priorities != null && linksNow.size() > 1) {
+			linksNow.sort(Comparator.comparingDouble(link -> -priorities[indexOf(link.getArc())]));
+		}
 		if (logging) {
-			tick = new AtomicInteger(0);
-			linkTrace = new ConcurrentLinkedQueue<>();
+			int t = tick.incrementAndGet();
+			linkTrace.add(linksNow);
+			if (observer != null) observer.accept(caller, t, linksNow);
+		} else {
+			if (observer != null) observer.accept(caller, 0, linksNow);
 		}
-		while (!hasEnded()) {
-			ticktock(null);
+		return linksNow;
+	}
+
+	private void runArc(Arc arc) {
+		Overseer previous = bind();
+		try {
+			runAndRelease(arc);
+		} finally {
+			unbind(previous);
 		}
-		onEnd();
 	}
 
-	private void ticktock(Node caller) {
-		if (!started) return; // to prevent adding datums manually from triggering a ticktock
-		if (hasEnded()) return;
-
-		// all outputs nodes having progress 1 is equivalent to the arc being done.
-		if (caller != null && caller.getProgress() == 1) {
-			for (Link link : g.outputNodeMap.get(caller)) {
-				// maybe another one of its output nodes got to it first
-				if (link.getArc().getStatus() == ArcStatus.FINISHED) continue;
-				if (link.getArc().getOutputNodesRemaining() == 0) {
-					link.getArc().setStatus(ArcStatus.FINISHED);
-				}
-			}
+	private void runAndRelease(Arc arc) {
+		if (runningThreads == null) {
+			try {
+				arc.runWrapper();
+				if (consumersRemaining != null) releaseDependencies(arc);
+			} finally {
+				if (arc.getResource() != null) arc.getResource().release();
+			}
+			return;
+		}
+
+		Thread thread = Thread.currentThread();
+		boolean added; // false if this thread is already running an arc that this one is nested in
+		synchronized (runningThreads) {
+			added = runningThreads.add(thread);
+		}
+		long arcTimeout = arc.getTimeout(TimeUnit.NANOSECONDS);
+		ScheduledFuture<?> timer = arcTimeout == -1 ? null :
+				Timer.SCHEDULER.schedule(() -> timeOut(arc), arcTimeout, TimeUnit.NANOSECONDS);
+		try {
+			arc.runWrapper();
+			if (consumersRemaining != null) releaseDependencies(arc);
+		} finally {
+			if (timer != null) timer.cancel(false);
+			if (added) {
+				synchronized (runningThreads) {
+					runningThreads.remove(thread);
+				}
+				// a pooled thread must not carry the interrupt into its next task
+				if (timeout != null && completion != null) Thread.interrupted();
+			}
+			if (arc.getResource() != null) arc.getResource().release();
+		}
+	}
+
+	/**
+	 * Counts the links that will consume each node, for {@link #setEviction(boolean)}. Ending nodes, nodes that are not
+	 * discrete, and nodes consumed by an unsafe arc, which can run again, are never evicted.
+	 */
+	private void countConsumers() {
+		consumersRemaining = new AtomicIntegerArray(plan.nodeCount());
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (plan.ending[n] || !(plan.nodes[n] instanceof DiscreteNode)) consumersRemaining.set(n, -1);
+		}
+		for (int a = 0; a < plan.arcCount(); a++) {
+			if (status(a) == ArcStatus.FINISHED) continue; // will not run, e.g. its outputs were in the initial cache
+			for (int n : plan.dependencies[a]) {
+				int count = consumersRemaining.get(n);
+				if (count == -1) continue;
+				consumersRemaining.set(n, plan.arcs[a].isSafe() ? count + 1 : -1);
+			}
+		}
+	}
+
+	/**
+	 * Evicts the datums of the dependencies of the arc that no other arc will consume. Called once the arc has returned,
+	 * as it may read its dependencies until then even if it is already finished.
+	 */
+	private void releaseDependencies(Arc arc) {
+		for (int n : plan.dependencies[indexOf(arc)]) {
+			if (consumersRemaining.getAndUpdate(n, count -> count > 0 ? count - 1 : count) != 1) continue;
+			for (String datumName : plan.nodes[n].datumNames) {
+				if (!pinnedDatums.contains(datumName)) cache.discard(datumName);
+			}
+		}
+	}
+
+	/**
+	 * Ticktocks once a permit of the resource is given back. Sequential overseers instead park in their iterative
+	 * ticktock, see {@link #parkForPermit(Resource)}.
+	 */
+	private void awaitPermit(Resource resource) {
+		if (completion == null || !parallel) {
+			blockedOn = resource;
+			return;
+		}
+		if (!awaitedResources.add(resource)) return;
+		resource.await(() -> {
+			inFlight.incrementAndGet(); // before removing the resource so that the overseer does not look stalled
+			awaitedResources.remove(resource);
+			try {
+				executor.execute(() -> {
+					runTask(null);
+					resource.wakeNext(); // in case the ticktock took no permit
+				});
+			} catch (RejectedExecutionException e) {
+				completion.completeExceptionally(e);
+				releaseTask();
+				resource.wakeNext();
+			}
+		});
+	}
+
+	/**
+	 * Blocks a sequential overseer whose last tick ran no arc, as the arcs it could run were waiting on the resource,
+	 * until a permit of the resource is given back. A timeout interrupts the wait.
+	 *
+	 * @throws IllegalStateException if the thread is interrupted other than by a timeout
+	 */
+	private void parkForPermit(Resource resource) {
+		Thread thread = Thread.currentThread();
+		if (runningThreads != null) {
+			synchronized (runningThreads) {
+				if (timeout != null) return; // thrown by runSequentially
+				runningThreads.add(thread);
+			}
+		}
+		CountDownLatch released = new CountDownLatch(1);
+		Runnable waiter = released::countDown;
+		resource.await(waiter);
+		try {
+			released.await();
+		} catch (InterruptedException e) {
+			if (!resource.cancel(waiter)) resource.wakeNext(); // this overseer was woken, but will not take the permit
+			if (timeout != null) return;
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a permit of resource " + resource + "!", e);
+		} finally {
+			if (runningThreads != null) {
+				synchronized (runningThreads) {
+					runningThreads.remove(thread);
+				}
+			}
+		}
+	}
+
+	private void submit(Arc arc) {
+		inFlight.incrementAndGet();
+		try {
+			executorFor(arc).execute(() -> runTask(arc));
+		} catch (RejectedExecutionException e) {
+			completion.completeExceptionally(e);
+			releaseTask();
+		}
+	}
+
+	/**
+	 * Runs an arc on the executor, then ticktocks in place of the iterative ticktock of a sequential overseer. If fewer
+	 * links than the parallel threshold are runnable after the arc, they are run by this task too instead of being
+	 * submitted, unless they belong on another executor.
+	 *
+	 * @param arc the arc to run, or null to only ticktock
+	 */
+	private void runTask(Arc arc) {
+		Executor current = arc == null ? executor : executorFor(arc);
+		Overseer previous = bind();
+		try {
+			Queue<Arc> arcs = new ArrayDeque<>();
+			if (arc != null) arcs.add(arc);
+			do {
+				if (!arcs.isEmpty()) runAndRelease(arcs.remove());
+				Collection<Link> linksNow = poll(null, true);
+				if (linksNow.size() < parallelThreshold) {
+					for (Link link : linksNow) {
+						Arc next = link.getArc();
+						if (executorFor(next) == current) {
+							arcs.add(next);
+						} else {
+							submit(next);
+						}
+					}
+				} else {
+					for (Link link : linksNow) {
+						submit(link.getArc());
+					}
+				}
+			} while (!arcs.isEmpty());
+		} catch (Throwable t) {
+			completion.completeExceptionally(t);
+		} finally {
+			unbind(previous);
+			releaseTask();
+		}
+	}
+
+	private Executor executorFor(Arc arc) {
+		return virtualThreads || arc.isBlocking() ? VirtualExecutor.INSTANCE : executor;
+	}
+
+	/**
+	 * Runs a hedged arc on its own virtual thread, starting a second attempt on another if the first has not returned
+	 * after the delay of the hedge. Attempts buffer their datums instead of adding them to nodes, and only the datums of
+	 * the first attempt to return are added, by this thread, so the loser can never add a datum twice. The loser is
+	 * interrupted. If every attempt started fails, the first failure is thrown.
+	 * <p>
+	 * The first attempt runs under the permit of the {@link Resource} of the arc taken when it was dispatched. The
+	 * second attempt takes a permit of its own, which it gives back once it returns, and is not started if none is
+	 * available.
+	 */
+	void runHedged(Arc arc, Hedge hedge) {
+		long delay = hedge.delayOf(arc, burstHistory);
+		if (delay == -1) { // not enough burst times yet
+			arc.run();
+			return;
+		}
+
+		CompletableFuture<Map<String, Object>> winner = new CompletableFuture<>();
+		AtomicInteger attempts = new AtomicInteger(0), failures = new AtomicInteger(0);
+		List<Thread> threads = new ArrayList<>(2);
+		threads.add(startAttempt(arc, winner, attempts, failures, null));
+		Map<String, Object> datums;
+		try {
+			try {
+				datums = winner.get(delay, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				Resource resource = arc.getResource();
+				if (resource == null || resource.tryAcquire()) {
+					hedgeCount.incrementAndGet();
+					threads.add(startAttempt(arc, winner, attempts, failures, resource));
+				}
+				datums = winner.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running hedged arc " + arc + "!", e);
+		} finally {
+			for (Thread thread : threads) {
+				thread.interrupt(); // the winner has already returned
+			}
+		}
+
+		for (Map.Entry<String, Object> entry : datums.entrySet()) {
+			arc.returnDatum(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * @param permit the resource whose permit the attempt gives back once it returns, or null if it took none
+	 */
+	private Thread startAttempt(Arc arc, CompletableFuture<Map<String, Object>> winner, AtomicInteger attempts,
+	                            AtomicInteger failures, Resource permit) {
+		attempts.incrementAndGet();
+		Thread thread = VirtualExecutor.FACTORY.newThread(() -> {
+			Overseer previous = bind();
+			Map<String, Object> datums = new HashMap<>();
+			Arc.ATTEMPT.set(datums);
+			try {
+				arc.run();
+				winner.complete(datums);
+			} catch (Throwable t) {
+				// the first failure is kept, but only reported once no attempt is left that could still succeed
+				if (failures.incrementAndGet() == attempts.get()) winner.completeExceptionally(t);
+			} finally {
+				Arc.ATTEMPT.remove();
+				unbind(previous);
+				if (permit != null) permit.release();
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	private void releaseTask() {
+		if (inFlight.decrementAndGet() == 0 && !completion.isDone()) {
+			if (hasEnded()) {
+				finish();
+			} else if (awaitedResources.isEmpty()) { // otherwise a permit will ticktock the overseer
+				completion.completeExceptionally(new IllegalStateException(
+						"Overseer stalled! No arcs are running or runnable but the ending nodes " +
+								getUnfinishedEndingNodes() + " are not at progress 1."));
+			}
+		}
+	}
+
+	private void finish() {
+		recordBurstTimes();
+		// the result cache is only complete once all ending nodes are computed
+		completion.complete(demanded == null ? getResultCache() : null);
+	}
+
+	private void recordBurstTimes() {
+		if (burstHistory == null) return;
+		if (burstRecorded == null) burstRecorded = new boolean[plan.arcCount()];
+		for (int a = 0; a < plan.arcCount(); a++) {
+			if (burstRecorded[a]) continue; // by an earlier call of compute(Set)
+			if (status(a) == ArcStatus.FINISHED && startTimes[a] != -1 && endTimes[a] != -1) {
+				burstRecorded[a] = true;
+				burstHistory.record(plan.arcs[a], endTimes[a] - startTimes[a]);
+			}
+		}
+	}
+
+	private List<Node> getUnfinishedEndingNodes() {
+		List<Node> unfinished = new ArrayList<>();
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (targets[n] && progress(n) != 1) {
+				unfinished.add(plan.nodes[n]);
+			}
+		}
+		return unfinished;
+	}
+
+	private boolean runnable(int a) {
+		for (int n : plan.dependencies[a]) {
+			if (!usable(n)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int outputNodesRemaining(int a) {
+		int remaining = 0;
+		for (int n : plan.outputNodes[a]) {
+			if (progress(n) != 1) {
+				remaining++;
+			}
+		}
+		return remaining;
+	}
+
+	private void countDependencies() {
+		unmetDependencies = new AtomicIntegerArray(plan.arcCount());
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (usable(n)) {
+				usableNodes.add(plan.nodes[n]);
+			}
+		}
+		for (int a = 0; a < plan.arcCount(); a++) {
+			int unmet = 0;
+			for (int n : plan.dependencies[a]) {
+				if (!usable(n)) {
+					unmet++;
+				}
+			}
+			unmetDependencies.set(a, unmet);
+			if (unmet == 0) {
+				readyQueue.add(a);
+			}
+		}
+	}
+
+	/**
+	 * Called every time a node is set to usable. Only the first call per node has an effect. Before the overseer
+	 * starts, the dependency counters are not yet built, so this does nothing.
+	 */
+	private void onUsable(Node node) {
+		if (unmetDependencies == null) return;
+		if (!usableNodes.add(node)) return;
+
+		for (int a : plan.dependents[indexOf(node)]) {
+			if (unmetDependencies.decrementAndGet(a) == 0) {
+				readyQueue.add(a);
+			}
+		}
+	}
+
+	/**
+	 * Computes the priority of every arc as its cost plus the highest priority among the arcs that depend on its output
+	 * nodes, i.e. the cost of the longest path from the arc to the end of the graph. Arcs on or downstream of a cycle
+	 * only get their own cost.
+	 */
+	private void rankByCriticalPath() {
+		int arcCount = plan.arcCount();
+		double[] costs = new double[arcCount];
+		double knownTotal = 0;
+		int knownCount = 0;
+		for (int a = 0; a < arcCount; a++) {
+			Arc arc = plan.arcs[a];
+			costs[a] = arc.getCost() != -1 ? arc.getCost() : burstHistory == null ? -1 : burstHistory.getAverage(arc);
+			if (costs[a] != -1) {
+				knownTotal += costs[a];
+				knownCount++;
+			}
+		}
+		double unknownCost = knownCount == 0 ? 1 : knownTotal / knownCount; // arcs of unknown cost are average
+		for (int a = 0; a < arcCount; a++) {
+			if (costs[a] == -1) costs[a] = unknownCost;
+		}
+
+		double[] ranks = costs.clone(); // arcs on or downstream of a cycle only get their own cost
+		for (int i = plan.topologicalOrder.length - 1; i >= 0; i--) {
+			int a = plan.topologicalOrder[i];
+			double longest = 0;
+			for (int b : plan.successors[a]) {
+				longest = Math.max(longest, ranks[b]);
+			}
+			ranks[a] = costs[a] + longest;
+		}
+		priorities = ranks;
+	}
+
+	private void countEndingNodes() {
+		int remaining = 0;
+		for (int n = 0; n < plan.nodeCount(); n++) {
+			if (!targets[n]) continue;
+			if (progress(n) == 1) {
+				endedNodes.add(plan.nodes[n]);
+			} else {
+				remaining++;
+			}
+		}
+		endingNodesRemaining = new AtomicInteger(remaining);
+	}
+
+	/**
+	 * Called every time a node is set to progress 1. Only the first call per ending node has an effect.
+	 */
+	private void onProgressed(Node node) {
+		if (endingNodesRemaining == null) return;
+		if (!targets[indexOf(node)] || !endedNodes.add(node)) return;
+
+		endingNodesRemaining.decrementAndGet();
+	}
+
+	void unsafeTicktock(Node caller) {
+		if (caller == null) {
+			throw new NullPointerException("Caller cannot be null!");
+		}
+		ticktock(caller);
+	}
+
+	private int indexOf(Arc arc) {
+		int a = plan.indexOf(arc);
+		if (a == -1) {
+			throw new IllegalArgumentException("Arc " + arc + " is not in the graph of this overseer!");
+		}
+		return a;
+	}
+
+	private int indexOf(Node node) {
+		int n = plan.indexOf(node);
+		if (n == -1) {
+			throw new IllegalArgumentException("Node " + node + " is not in the graph of this overseer!");
 		}
+		return n;
+	}
 
-		Collection<Link> linksNow = new ArrayList<>(linkQueue.size());
-		for (Iterator<Link> iterator = linkQueue.iterator(); iterator.hasNext(); ) {
-			Link link = iterator.next();
-			if (link.getArc().getStatus() == ArcStatus.FINISHED) { // lazily remove finished links
-				iterator.remove();
-				continue;
+	/**
+	 * Returns the status of the given arc in this overseer.
+	 *
+	 * @param arc the arc
+	 * @return the status of the arc
+	 * @throws IllegalArgumentException if the arc is not in the graph of this overseer
+	 * @see Arc#getStatus()
+	 */
+	public ArcStatus getStatus(Arc arc) {
+		return status(indexOf(arc));
+	}
+
+	private ArcStatus status(int a) {
+		return STATUSES[statuses.get(a)];
+	}
+
+	/**
+	 * @see Arc#setStatus(ArcStatus)
+	 */
+	void setStatus(Arc arc, ArcStatus status) {
+		int a = indexOf(arc);
+		while (true) {
+			ArcStatus current = status(a);
+			if (status == current) return; // no change don't do anything
+			if (current == ArcStatus.FINISHED) {
+				throw new IllegalStateException("Arc " + arc + " is already finished!");
 			}
-			if (link.runnable()) {
-				Arc arc = link.getArc();
-				if (!unsafeOnRecursive && caller != null && !arc.isSafe()) {
-					continue;
-				}
-				synchronized (arc) { // prevents one arc from being added to two separate linksNow
-					if (arc.getStatus() == ArcStatus.IDLE) {
-						arc.setStatus(ArcStatus.STAND_BY);
-						linksNow.add(link);
-					}
-				}
+			if (arc.isSafe() && status.stage() < current.stage()) {
+				throw new IllegalArgumentException(
+						"Safe arc " + arc + " cannot be set to " + status + " from " + current + "!");
 			}
+			if (statuses.compareAndSet(a, current.ordinal(), status.ordinal())) break;
 		}
 
-		if (logging) {
-			int t = tick.incrementAndGet();
-			linkTrace.add(linksNow);
-			if (observer != null) observer.accept(caller, t, linksNow);
-		} else {
-			if (observer != null) observer.accept(caller, 0, linksNow);
+		if (status == ArcStatus.IN_PROGRESS && startTimes[a] == -1) {
+			startTimes[a] = System.nanoTime();
+		} else if (status == ArcStatus.FINISHED) {
+			endTimes[a] = System.nanoTime();
 		}
+	}
 
-		if (linksNow.isEmpty()) return;
-		if (!parallel || linksNow.size() < parallelThreshold) {
-			for (Link link : linksNow) {
-				link.getArc().runWrapper();
-			}
-		} else {
-			// Run all links that can be done now (aka linksNow) in parallel.
-			RecursiveAction[] tasks = new RecursiveAction[linksNow.size()];
-			int i = 0;
-			for (Link link : linksNow) {
-				tasks[i] = new RecursiveAction() {
-					@Override
-					protected void compute() {
-						link.getArc().runWrapper();
-					}
-				};
-				i++;
+	long getStartTime(Arc arc) {
+		return startTimes[indexOf(arc)];
+	}
+
+	long getEndTime(Arc arc) {
+		return endTimes[indexOf(arc)];
+	}
+
+	Link getLink(Arc arc) {
+		return plan.links[indexOf(arc)];
+	}
+
+	/**
+	 * Returns the progress of the given node in this overseer.
+	 *
+	 * @param node the node
+	 * @return the progress of the node
+	 * @throws IllegalArgumentException if the node is not in the graph of this overseer
+	 * @see Node#getProgress()
+	 */
+	public double getProgress(Node node) {
+		return progress(indexOf(node));
+	}
+
+	private double progress(int n) {
+		return Double.longBitsToDouble(nodeStates.get(n) & ~USABLE);
+	}
+
+	/**
+	 * @see Node#setProgress(double)
+	 */
+	boolean setProgress(Node node, double progress) {
+		int n = indexOf(node);
+		long bits = Double.doubleToRawLongBits(progress + 0.0); // without the sign bit of -0.0
+		while (true) {
+			long state = nodeStates.get(n);
+			if (bits < (state & ~USABLE)) {
+				return false;
 			}
-			ForkJoinTask.invokeAll(tasks);
+			if (nodeStates.compareAndSet(n, state, bits | (state & USABLE))) break;
 		}
+		if (progress == 1) onProgressed(node);
+		return true;
 	}
 
-	void unsafeTicktock(Node caller) {
-		if (caller == null) {
-			throw new NullPointerException("Caller cannot be null!");
-		}
-		ticktock(caller);
+	/**
+	 * Returns whether the given node is usable in this overseer.
+	 *
+	 * @param node the node
+	 * @return true if the node is usable
+	 * @throws IllegalArgumentException if the node is not in the graph of this overseer
+	 * @see Node#isUsable()
+	 */
+	public boolean isUsable(Node node) {
+		return usable(indexOf(node));
+	}
+
+	private boolean usable(int n) {
+		return nodeStates.get(n) < 0; // the USABLE bit is the sign bit
+	}
+
+	/**
+	 * @see Node#setUsable()
+	 */
+	void setUsable(Node node) {
+		nodeStates.getAndUpdate(indexOf(node), state -> state | USABLE);
+		onUsable(node);
+	}
+
+	/**
+	 * Increments the number of datums that have been added to the given node.
+	 *
+	 * @return the number of datums added, including this one
+	 */
+	int incrementDatumCount(Node node) {
+		return datumCounts.incrementAndGet(indexOf(node));
+	}
+
+	int getDatumCount(Node node) {
+		return datumCounts.get(indexOf(node));
+	}
+
+	boolean isEndingNode(Node node) {
+		return plan.ending[indexOf(node)];
 	}
 
 	/**
@@ -244,7 +1580,8 @@ public final class Overseer {
 
 	/**
 	 * Convenience method for adding a starting datum to the overseer's cache. The datum must belong to a starting node.
-	 * Equivalent to calling {@link Node#addDatum(String, Object)} on the starting node directly.
+	 * Equivalent to calling {@link Node#addDatum(String, Object)} on the starting node directly, except that it also
+	 * works for overseers constructed from a {@link Plan}.
 	 *
 	 * @param datumName the name of the datum
 	 * @param datum     the datum
@@ -255,7 +1592,12 @@ public final class Overseer {
 			throw new IllegalArgumentException(
 					"Datum " + datumName + " does not belong to a starting node!");
 		}
-		node.addDatum(datumName, datum);
+		Overseer previous = bind();
+		try {
+			node.addDatum(datumName, datum);
+		} finally {
+			unbind(previous);
+		}
 	}
 
 	/**
@@ -272,24 +1614,68 @@ public final class Overseer {
 		}
 	}
 
-	private boolean hasEnded() {
-		for (Node endingNode : g.endingNodes) {
-			if (endingNode.getProgress() != 1) {
-				return false;
-			}
+	boolean hasEnded() {
+		return endingNodesRemaining.get() == 0;
+	}
+
+	/**
+	 * Starts the overseer without ever ticktocking. Its arcs are run by a {@link Batch} instead.
+	 */
+	void startDriven() {
+		driven = true;
+		prepareStart();
+	}
+
+	/**
+	 * @return whether the arc is idle and all of its dependencies are usable
+	 */
+	boolean isReady(int a) {
+		return status(a) == ArcStatus.IDLE && runnable(a);
+	}
+
+	void runDriven(Arc arc) {
+		setStatus(arc, ArcStatus.STAND_BY);
+		if (arc.getResource() != null) arc.getResource().acquire(); // given back when the arc returns
+		runArc(arc);
+	}
+
+	/**
+	 * Runs the action in the context of this overseer, so that arcs and nodes act on this overseer.
+	 */
+	void runBound(Runnable action) {
+		Overseer previous = bind();
+		try {
+			action.run();
+		} finally {
+			unbind(previous);
 		}
-		return true;
+	}
+
+	/**
+	 * Ends an overseer started by {@link #startDriven()}.
+	 *
+	 * @return the result cache
+	 * @throws IllegalStateException if not all ending nodes are at progress 1
+	 */
+	Map<String, Object> endDriven() {
+		if (!hasEnded()) {
+			throw new IllegalStateException("Overseer stalled! No arcs are runnable but the ending nodes " +
+					getUnfinishedEndingNodes() + " are not at progress 1.");
+		}
+		recordBurstTimes();
+		return getResultCache();
 	}
 
 	private void onEnd() {
+		if (!primed) return;
 		for (Primable primable : g.primables) {
 			primable.getLock().unlock();
 		}
 	}
 
 	/**
-	 * Returns the full cache which is a {@link StrictHashMap}. Trying to get a datum that is not in the cache will
-	 * throw an exception.
+	 * Returns the full cache, which is strict like a {@link StrictConcurrentHashMap}. Trying to get a datum that is not
+	 * in the cache will throw an exception.
 	 *
 	 * @return the full cache
 	 */
@@ -297,13 +1683,17 @@ public final class Overseer {
 		return cache;
 	}
 
+	DatumStore getDatumStore() {
+		return cache;
+	}
+
 	/**
 	 * The result cache contains only the datums of ending nodes. Trying to get a datum that is not in the cache will
 	 * return null.
 	 *
 	 * @return the result cache
 	 */
-	public Map<String, Object> getResultCache() {
+	public synchronized Map<String, Object> getResultCache() {
 		if (resultCache != null) return resultCache;
 
 		resultCache = new HashMap<>();
@@ -342,7 +1732,51 @@ public final class Overseer {
 	 * @return the node that contains the given datum
 	 */
 	public Node getNodeOfDatum(String datumName) {
-		return g.nodeOfDatum.get(datumName);
+		int slot = plan.slotOf(datumName);
+		return slot == -1 ? null : plan.nodes[plan.nodeOfSlot[slot]];
+	}
+
+	/**
+	 * @param timeUnit the time unit to return the deadline in
+	 * @return the deadline of this overseer, or -1 if it has none
+	 */
+	public long getDeadline(TimeUnit timeUnit) {
+		return deadline == -1 ? -1 : timeUnit.convert(deadline, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Default: {@code -1}
+	 * <p>
+	 * If the overseer has not ended when the deadline passes, it times out: no further arcs are run, the threads
+	 * running arcs are interrupted, and {@link #start()} throws an {@link OverseerTimeoutException} with the partial
+	 * cache. If the overseer is parallel, {@link #start()} returns at the deadline even if an arc ignores the
+	 * interrupt.
+	 *
+	 * @param deadline the time after the start by which the overseer must have ended, or -1 for none
+	 * @param timeUnit the time unit of the deadline
+	 * @throws IllegalArgumentException if the deadline is negative and not -1
+	 * @see Arc#setTimeout(long, TimeUnit)
+	 */
+	public void setDeadline(long deadline, TimeUnit timeUnit) {
+		if (deadline < 0 && deadline != -1) {
+			throw new IllegalArgumentException("Deadline " + deadline + " cannot be negative!");
+		}
+		this.deadline = deadline == -1 ? -1 : timeUnit.toNanos(deadline);
+	}
+
+	/**
+	 * @return true if the deadline of this overseer or the timeout of one of its arcs has passed
+	 */
+	public boolean isTimedOut() {
+		return timeout != null;
+	}
+
+	/**
+	 * @return the number of hedged arcs for which a second attempt was started
+	 * @see Arc#setHedge(Hedge)
+	 */
+	public int getHedgeCount() {
+		return hedgeCount.get();
 	}
 
 	/**
@@ -377,13 +1811,13 @@ public final class Overseer {
 		}
 
 		Map<Link, Long> burstTimes = new HashMap<>();
-		for (Link link : g.links) {
-			long startTime = link.getArc().getStartTime();
-			long endTime = link.getArc().getEndTime();
+		for (int a = 0; a < plan.arcCount(); a++) {
+			long startTime = startTimes[a];
+			long endTime = endTimes[a];
 			if (startTime == -1 || endTime == -1) {
-				burstTimes.put(link, -1L);
+				burstTimes.put(plan.links[a], -1L);
 			} else {
-				burstTimes.put(link, timeUnit.convert(endTime - startTime, TimeUnit.NANOSECONDS));
+				burstTimes.put(plan.links[a], timeUnit.convert(endTime - startTime, TimeUnit.NANOSECONDS));
 			}
 		}
 		return burstTimes;
@@ -396,6 +1830,13 @@ public final class Overseer {
 		return g;
 	}
 
+	/**
+	 * @return the plan that this overseer is running
+	 */
+	public Plan getPlan() {
+		return plan;
+	}
+
 	public boolean isParallel() {
 		return parallel;
 	}
@@ -409,12 +1850,33 @@ public final class Overseer {
 		this.parallel = parallel;
 	}
 
+	public boolean isDependencyCounting() {
+		return dependencyCounting;
+	}
+
+	/**
+	 * Default: {@code false}
+	 * <p>
+	 * If true, the overseer keeps a counter of unmet dependencies for every link. When a node becomes usable, only the
+	 * links that depend on it are updated, and links whose counters reach zero are added to a ready queue. Ticktocks
+	 * then only check the ready queue instead of every unfinished link, so the cost of a ticktock scales with the
+	 * number of runnable links rather than with the size of the graph. Must be set before {@link #start()}.
+	 *
+	 * @param dependencyCounting whether to schedule links by counting their unmet dependencies
+	 */
+	public void setDependencyCounting(boolean dependencyCounting) {
+		this.dependencyCounting = dependencyCounting;
+	}
+
 	public int getParallelThreshold() {
 		return parallelThreshold;
 	}
 
 	/**
 	 * Default: {@code 2}
+	 * <p>
+	 * When an arc finishes on the executor and fewer links than this are runnable, the same thread runs them instead
+	 * of submitting them to the executor.
 	 *
 	 * @param parallelThreshold the minimum number of links that must be runnable for the overseer to run them in
 	 *                          parallel
@@ -426,6 +1888,266 @@ public final class Overseer {
 		this.parallelThreshold = parallelThreshold;
 	}
 
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Default: a {@link ForkJoinPool} shared by all overseers, separate from {@link ForkJoinPool#commonPool()}, with
+	 * one thread per available processor and at least two
+	 * <p>
+	 * Arcs of a parallel overseer are run on this executor, which isolates graphs from other users of the common pool
+	 * and makes throughput and latency tunable per deployment. The executor is never shut down by the overseer. Must be
+	 * set before {@link #start()}.
+	 *
+	 * @param executor the executor to run arcs on
+	 */
+	public void setExecutor(Executor executor) {
+		if (executor == null) {
+			throw new NullPointerException("Executor cannot be null!");
+		}
+		this.executor = executor;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * Default: {@code false}
+	 * <p>
+	 * If true, every arc of this overseer is run on its own virtual thread instead of on the executor. Otherwise, only
+	 * blocking arcs ({@link Arc#isBlocking()}) are, and CPU-bound arcs stay on the executor. Only applies if the
+	 * overseer is parallel. Must be set before {@link #start()}.
+	 *
+	 * @param virtualThreads whether to run all arcs on virtual threads
+	 * @see org.trikkle.annotations.Blocking
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	public boolean isEventLoop() {
+		return eventLoop;
+	}
+
+	/**
+	 * Default: {@code false}
+	 * <p>
+	 * If true, a node that changes does not ticktock the overseer recursively. Instead, it posts an event that is
+	 * drained by the thread already ticktocking, once the running arc returns, and all events posted in the meantime
+	 * are handled in a single tick. The stack depth then stays constant however deep the graph is, and changes to many
+	 * nodes by one arc do not each scan the queue of links. Parallel overseers handle the events of an arc in the tick
+	 * that follows it. Must be set before {@link #start()}.
+	 *
+	 * @param eventLoop whether to handle node changes in an event loop instead of by recursive ticktocks
+	 */
+	public void setEventLoop(boolean eventLoop) {
+		this.eventLoop = eventLoop;
+	}
+
+	public boolean isCriticalPathScheduling() {
+		return criticalPathScheduling;
+	}
+
+	/**
+	 * Default: {@code false}
+	 * <p>
+	 * If true, links that are runnable at the same tick are dispatched in order of the longest remaining path from
+	 * their arc to the end of the graph, weighted by the cost of each arc, so that a long chain of arcs is not started
+	 * last. The cost of an arc is its {@link Arc#getCost()} if known, then its average in the burst history
+	 * ({@link #setBurstHistory(BurstHistory)}), then the average cost of the other arcs. Must be set before
+	 * {@link #start()}.
+	 *
+	 * @param criticalPathScheduling whether to prioritize links on the critical path
+	 */
+	public void setCriticalPathScheduling(boolean criticalPathScheduling) {
+		this.criticalPathScheduling = criticalPathScheduling;
+	}
+
+	public BurstHistory getBurstHistory() {
+		return burstHistory;
+	}
+
+	/**
+	 * Default: {@code null}
+	 * <p>
+	 * The burst times of this overseer are recorded to the history when it ends, and the history is used to estimate
+	 * the cost of arcs for critical-path scheduling. Share one history between overseers of the same graph to carry
+	 * costs across runs, and use {@link BurstHistory#store(java.io.Writer)} to carry them across JVMs.
+	 *
+	 * @param burstHistory the burst history, or null for none
+	 * @see #setCriticalPathScheduling(boolean)
+	 */
+	public void setBurstHistory(BurstHistory burstHistory) {
+		this.burstHistory = burstHistory;
+	}
+
+	public boolean isEviction() {
+		return eviction;
+	}
+
+	/**
+	 * Default: {@code false}
+	 * <p>
+	 * If true, the datums of a discrete node are evicted from the cache as soon as every link that depends on the node
+	 * has run, so that intermediate datums can be garbage collected while the overseer is still running. The node stays
+	 * usable. The datums of ending nodes and pinned datums ({@link #setPinnedDatums(Set)}) are never evicted, nor are
+	 * the datums of nodes that an unsafe arc depends on, as it may run again.
+	 * <p>
+	 * Arcs may then only read the datums of their own dependencies, not those of transitive dependencies, which may
+	 * already have been evicted. Has no effect on {@link #compute(Set)}, as later calls may need any datum, nor with a
+	 * checkpoint file ({@link #setCheckpointFile(Path)}). Must be set before {@link #start()}.
+	 *
+	 * @param eviction whether to evict datums that no link will consume
+	 */
+	public void setEviction(boolean eviction) {
+		this.eviction = eviction;
+	}
+
+	public Set<String> getPinnedDatums() {
+		return pinnedDatums;
+	}
+
+	/**
+	 * Default: empty
+	 *
+	 * @param pinnedDatums the names of the datums to keep in the cache with eviction
+	 * @throws NullPointerException if the set is null
+	 * @see #setEviction(boolean)
+	 */
+	public void setPinnedDatums(Set<String> pinnedDatums) {
+		if (pinnedDatums == null) {
+			throw new NullPointerException("Pinned datums cannot be null!");
+		}
+		this.pinnedDatums = pinnedDatums;
+	}
+
+	public long getSpillThreshold() {
+		return spillThreshold;
+	}
+
+	/**
+	 * Default: {@code -1}
+	 * <p>
+	 * {@code byte[]}, {@code int[]}, {@code long[]}, {@code double[]} and {@link java.nio.ByteBuffer} datums larger
+	 * than this many bytes are moved out of the heap into memory-mapped temporary files when they are added to the
+	 * cache, so graphs whose intermediate datums do not fit in the heap at once can still run. Arrays are copied back
+	 * onto the heap every time they are read, e.g. with {@link Arc#getDatum(String)}. Only read-only buffers are
+	 * spilled, and they are not copied, but read as read-only views of the mapped file. Only applies to datums of the
+	 * graph added after it is set, not to the initial cache.
+	 *
+	 * @param spillThreshold the size in bytes above which datums are spilled, or -1 to spill none
+	 * @throws IllegalArgumentException if the threshold is negative and not -1
+	 * @see #setSpillDirectory(Path)
+	 */
+	public void setSpillThreshold(long spillThreshold) {
+		if (spillThreshold < -1) {
+			throw new IllegalArgumentException("Spill threshold " + spillThreshold + " must not be negative!");
+		}
+		this.spillThreshold = spillThreshold;
+		cache.setSpill(spillThreshold, spillDirectory);
+	}
+
+	public Path getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Default: the {@code java.io.tmpdir} directory
+	 * <p>
+	 * The files of spilled datums are deleted as soon as they are mapped, so they never show up in the directory, but
+	 * take up space on its file system until the datums are garbage collected.
+	 *
+	 * @param spillDirectory the directory to create the files of spilled datums in
+	 * @throws NullPointerException if the directory is null
+	 * @see #setSpillThreshold(long)
+	 */
+	public void setSpillDirectory(Path spillDirectory) {
+		if (spillDirectory == null) {
+			throw new NullPointerException("Spill directory cannot be null!");
+		}
+		this.spillDirectory = spillDirectory;
+		cache.setSpill(spillThreshold, spillDirectory);
+	}
+
+	public Path getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Default: {@code null}
+	 * <p>
+	 * If set, the overseer writes a {@link Checkpoint} to this file every checkpoint interval while it runs, so that a
+	 * run that crashes can be resumed with {@link #resume(Graph, Checkpoint)} instead of starting over. Eviction
+	 * ({@link #setEviction(boolean)}) is turned off, as a checkpoint must hold the datums that unfinished arcs need.
+	 * Must be set before {@link #start()}.
+	 *
+	 * @param checkpointFile the file to write checkpoints to, or null to write none
+	 * @see #setCheckpointCodec(DatumCodec)
+	 * @see #setCheckpointInterval(long, TimeUnit)
+	 * @see #checkpoint()
+	 */
+	public void setCheckpointFile(Path checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	public DatumCodec getCheckpointCodec() {
+		return checkpointCodec;
+	}
+
+	/**
+	 * Default: {@link DatumCodec#SERIALIZATION}
+	 *
+	 * @param checkpointCodec the codec to encode the datums of checkpoints with
+	 * @throws NullPointerException if the codec is null
+	 */
+	public void setCheckpointCodec(DatumCodec checkpointCodec) {
+		if (checkpointCodec == null) {
+			throw new NullPointerException("Checkpoint codec cannot be null!");
+		}
+		this.checkpointCodec = checkpointCodec;
+	}
+
+	/**
+	 * @param timeUnit the time unit to return the interval in
+	 * @return the time between the end of a checkpoint and the start of the next
+	 */
+	public long getCheckpointInterval(TimeUnit timeUnit) {
+		return timeUnit.convert(checkpointInterval, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Default: 1 minute
+	 *
+	 * @param checkpointInterval the time between the end of a checkpoint and the start of the next
+	 * @param timeUnit           the time unit of the interval
+	 * @throws IllegalArgumentException if the interval is not positive
+	 */
+	public void setCheckpointInterval(long checkpointInterval, TimeUnit timeUnit) {
+		if (checkpointInterval <= 0) {
+			throw new IllegalArgumentException("Checkpoint interval " + checkpointInterval + " must be positive!");
+		}
+		this.checkpointInterval = timeUnit.toNanos(checkpointInterval);
+	}
+
+	public Journal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Default: {@code null}
+	 * <p>
+	 * If set, every datum added to a discrete node, including starting datums, is written to the journal, so that the
+	 * state of the overseer can be rebuilt with {@link Journal#replay(Path, DatumCodec, Graph)} if the process
+	 * crashes. The journal is not closed by the overseer.
+	 *
+	 * @param journal the journal to write datums to, or null for none
+	 */
+	public void setJournal(Journal journal) {
+		this.journal = journal;
+	}
+
 	public boolean isLogging() {
 		return logging;
 	}
@@ -495,4 +2217,31 @@ public final class Overseer {
 	public interface Observer {
 		void accept(Node caller, int tick, Collection<Link> links);
 	}
+
+	private static final class DefaultExecutor { // lazily creates the pool when an overseer is first constructed
+		// as many threads as the common pool plus the thread that used to join on it
+		static final ForkJoinPool POOL = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+				pool -> {
+					ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+					thread.setName("trikkle-overseer-" + thread.getPoolIndex());
+					return thread;
+				}, null, true);
+	}
+
+	private static final class Timer { // lazily starts the thread when a timeout is first scheduled
+		static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "trikkle-timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		static {
+			SCHEDULER.setRemoveOnCancelPolicy(true);
+		}
+	}
+
+	private static final class VirtualExecutor { // starts one virtual thread per arc
+		static final ThreadFactory FACTORY = Thread.ofVirtual().name("trikkle-virtual-", 0).factory();
+		static final Executor INSTANCE = command -> FACTORY.newThread(command).start();
+	}
 }
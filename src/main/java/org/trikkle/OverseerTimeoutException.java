@@ -0,0 +1,42 @@
+package org.trikkle;
+
+import java.util.Map;
+
+/**
+ * Thrown by {@link Overseer#start()}, or completes the future of {@link Overseer#startAsync()}, when an arc runs for
+ * longer than its timeout ({@link Arc#setTimeout(long, java.util.concurrent.TimeUnit)}) or the overseer runs past its
+ * deadline ({@link Overseer#setDeadline(long, java.util.concurrent.TimeUnit)}). Carries a copy of the cache as it was
+ * when the time ran out.
+ *
+ * @since 0.1.0
+ */
+public class OverseerTimeoutException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	private final transient Map<String, Object> partialCache;
+	private final transient Arc arc;
+
+	/**
+	 * @param message      the detail message
+	 * @param partialCache a copy of the cache when the time ran out
+	 * @param arc          the arc that timed out, or null if the deadline of the overseer passed
+	 */
+	public OverseerTimeoutException(String message, Map<String, Object> partialCache, Arc arc) {
+		super(message);
+		this.partialCache = partialCache;
+		this.arc = arc;
+	}
+
+	/**
+	 * @return a copy of the cache when the time ran out, holding the datums that had been computed until then
+	 */
+	public Map<String, Object> getPartialCache() {
+		return partialCache;
+	}
+
+	/**
+	 * @return the arc that timed out, or null if the deadline of the overseer passed
+	 */
+	public Arc getArc() {
+		return arc;
+	}
+}
@@ -0,0 +1,154 @@
+package org.trikkle;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Runs successive requests through one {@link Plan}, admitting a new request while earlier requests are still in the
+ * later arcs of the plan. Every request is run by an overseer of its own, so the datums of one request are never seen
+ * by another. Throughput on a deep plan therefore approaches that of its slowest arc rather than that of the whole
+ * plan.
+ * <p>
+ * At most {@link #getDepth()} requests are in the pipeline at a time. Requests submitted while the pipeline is full
+ * wait in a queue and are admitted in order of submission as earlier requests end.
+ * <p>
+ * Arcs with {@link org.trikkle.annotations.Input} or {@link org.trikkle.annotations.Output} fields are run as a copy
+ * per request, so requests never see each other's fields. Arcs that keep other state in their own fields must not be
+ * used in a pipeline.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Plan
+ * @see Overseer#startAsync()
+ * @since 0.1.0
+ */
+public final class Pipeline {
+	private final Plan plan;
+	private final int depth;
+	private final Consumer<Overseer> configurer;
+	private final Queue<Request> waiting = new ArrayDeque<>();
+	private int inPipeline = 0;
+
+	/**
+	 * Creates a pipeline for the given plan.
+	 *
+	 * @param plan  the plan to run
+	 * @param depth the maximum number of requests in the pipeline at a time
+	 * @throws NullPointerException     if the plan is null
+	 * @throws IllegalArgumentException if the depth is less than 1
+	 */
+	public Pipeline(Plan plan, int depth) {
+		this(plan, depth, overseer -> {
+		});
+	}
+
+	/**
+	 * Creates a pipeline for the given plan. The configurer is called on the overseer of every request before it is
+	 * started, e.g. to set its executor.
+	 *
+	 * @param plan       the plan to run
+	 * @param depth      the maximum number of requests in the pipeline at a time
+	 * @param configurer called on the overseer of every request before it is started
+	 * @throws NullPointerException     if the plan or configurer is null
+	 * @throws IllegalArgumentException if the depth is less than 1
+	 */
+	public Pipeline(Plan plan, int depth, Consumer<Overseer> configurer) {
+		if (plan == null) {
+			throw new NullPointerException("Plan cannot be null!");
+		}
+		if (configurer == null) {
+			throw new NullPointerException("Configurer cannot be null!");
+		}
+		if (depth < 1) {
+			throw new IllegalArgumentException("Depth " + depth + " must be at least 1!");
+		}
+		this.plan = plan;
+		this.depth = depth;
+		this.configurer = configurer;
+	}
+
+	/**
+	 * Submits a request to the pipeline.
+	 *
+	 * @param startingDatums the starting datums of the request
+	 * @return a future of the result cache of the request. It is completed exceptionally if the starting nodes are not
+	 * fully populated or if the request fails as described in {@link Overseer#startAsync()}.
+	 */
+	public CompletableFuture<Map<String, Object>> submit(Map<String, Object> startingDatums) {
+		Request request = new Request(startingDatums);
+		synchronized (this) {
+			waiting.add(request);
+		}
+		admit();
+		return request.future;
+	}
+
+	private void admit() {
+		while (true) {
+			Request request;
+			synchronized (this) {
+				if (inPipeline == depth || waiting.isEmpty()) return;
+				request = waiting.remove();
+				inPipeline++;
+			}
+			start(request);
+		}
+	}
+
+	private void start(Request request) {
+		CompletableFuture<Map<String, Object>> result;
+		try {
+			Overseer overseer = new Overseer(plan);
+			configurer.accept(overseer);
+			overseer.fillStartingDatums(request.startingDatums);
+			result = overseer.startAsync();
+		} catch (RuntimeException e) {
+			result = CompletableFuture.failedFuture(e);
+		}
+
+		result.whenComplete((results, throwable) -> {
+			synchronized (this) {
+				inPipeline--;
+			}
+			admit(); // before completing, so that callbacks on the future see the next request admitted
+			if (throwable == null) {
+				request.future.complete(results);
+			} else {
+				request.future.completeExceptionally(throwable);
+			}
+		});
+	}
+
+	/**
+	 * @return the maximum number of requests in the pipeline at a time
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the number of requests in the pipeline
+	 */
+	public synchronized int getInPipeline() {
+		return inPipeline;
+	}
+
+	/**
+	 * @return the number of requests waiting to be admitted into the pipeline
+	 */
+	public synchronized int getWaiting() {
+		return waiting.size();
+	}
+
+	private static final class Request {
+		final Map<String, Object> startingDatums;
+		final CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+
+		Request(Map<String, Object> startingDatums) {
+			this.startingDatums = startingDatums;
+		}
+	}
+}
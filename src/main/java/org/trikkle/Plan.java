@@ -0,0 +1,228 @@
+package org.trikkle;
+
+import java.util.*;
+
+/**
+ * An immutable, int-indexed compilation of a {@link Graph}. A plan holds only the structure of the graph: which nodes
+ * each arc depends on and outputs to, which links depend on each node, and which nodes are starting and ending nodes.
+ * All run state (arc statuses, node progress, the cache) is kept by the {@link Overseer} in per-execution arrays
+ * indexed the same way as {@link Graph#arcArray} and {@link Graph#nodeArray}. Every datum of the graph is given a slot,
+ * so that the cache can be an array indexed by slot.
+ * <p>
+ * Because a plan holds no run state, any number of overseers may execute the same plan at the same time. See
+ * {@link Overseer#Overseer(Plan)}.
+ * <p>
+ * A plan is a snapshot of the graph's links at the time of compilation. If the links are later changed in place (e.g.,
+ * by {@link Graph#optimizeDependencies()}), the plan must be compiled again.
+ *
+ * @see Graph
+ * @see Overseer
+ * @since 0.1.0
+ */
+public final class Plan {
+	private static final int UNRESOLVED = -2;
+	/**
+	 * The graph this plan was compiled from.
+	 */
+	public final Graph graph;
+	final Arc[] arcs;
+	final Node[] nodes;
+	final Link[] links; // indexed by arc
+	final int[][] dependencies; // node indices of the dependencies of each arc
+	final int[][] outputNodes; // node indices of the output nodes of each arc
+	final int[][] dependents; // arc indices of the links that depend on each node
+	final int[][] producers; // arc indices of the links that output each node
+	final int[][] successors; // arc indices of the links that depend on an output node of each arc
+	final int[] topologicalOrder; // arc indices such that every arc comes before its successors, without cycles
+	final int[] startingNodes, endingNodes;
+	final boolean[] ending; // indexed by node
+	final String[] datumNames; // indexed by slot
+	final int[] nodeOfSlot; // node index of the node declaring each datum
+	private final Map<String, Integer> slotIndex;
+	private volatile int[] keySlots = new int[0]; // indexed by key id, UNRESOLVED until the key is used with this plan
+	private final Map<Arc, Integer> arcIndex;
+	private final Map<Node, Integer> nodeIndex;
+
+	/**
+	 * Compiles the given graph into a plan.
+	 *
+	 * @param graph the graph to compile
+	 */
+	public Plan(Graph graph) {
+		this.graph = graph;
+		arcs = graph.arcArray.clone();
+		nodes = graph.nodeArray.clone();
+		arcIndex = new HashMap<>(graph.arcIndex);
+		nodeIndex = new HashMap<>(graph.nodeIndex);
+
+		links = new Link[arcs.length];
+		dependencies = new int[arcs.length][];
+		outputNodes = new int[arcs.length][];
+		for (int i = 0; i < arcs.length; i++) {
+			Link link = graph.arcMap.get(arcs[i]);
+			links[i] = link;
+			dependencies[i] = indicesOf(link.getDependencies());
+			outputNodes[i] = indicesOf(link.getOutputNodes());
+		}
+
+		dependents = new int[nodes.length][];
+		producers = new int[nodes.length][];
+		ending = new boolean[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			dependents[i] = arcIndicesOf(graph.dependencyNodeMap.get(nodes[i]));
+			producers[i] = arcIndicesOf(graph.outputNodeMap.get(nodes[i]));
+			ending[i] = graph.endingNodes.contains(nodes[i]);
+		}
+
+		List<String> names = new ArrayList<>();
+		List<Integer> owners = new ArrayList<>();
+		slotIndex = new HashMap<>();
+		for (int i = 0; i < nodes.length; i++) {
+			for (String datumName : nodes[i].datumNames) {
+				if (slotIndex.putIfAbsent(datumName, names.size()) != null) continue;
+				names.add(datumName);
+				owners.add(i);
+			}
+		}
+		datumNames = names.toArray(new String[0]);
+		nodeOfSlot = owners.stream().mapToInt(Integer::intValue).toArray();
+
+		startingNodes = indicesOf(graph.startingNodes);
+		endingNodes = indicesOf(graph.endingNodes);
+
+		successors = new int[arcs.length][];
+		for (int a = 0; a < arcs.length; a++) {
+			Set<Integer> successorSet = new LinkedHashSet<>();
+			for (int n : outputNodes[a]) {
+				for (int b : dependents[n]) {
+					successorSet.add(b);
+				}
+			}
+			successors[a] = successorSet.stream().mapToInt(Integer::intValue).toArray();
+		}
+		topologicalOrder = sortTopologically();
+	}
+
+	/**
+	 * Kahn's algorithm. Arcs on a cycle, or downstream of one, are left out.
+	 */
+	private int[] sortTopologically() {
+		int[] predecessorCounts = new int[arcs.length];
+		for (int[] arcSuccessors : successors) {
+			for (int b : arcSuccessors) {
+				predecessorCounts[b]++;
+			}
+		}
+		Queue<Integer> queue = new ArrayDeque<>();
+		for (int a = 0; a < arcs.length; a++) {
+			if (predecessorCounts[a] == 0) queue.add(a);
+		}
+		int[] order = new int[arcs.length];
+		int size = 0;
+		while (!queue.isEmpty()) {
+			int a = queue.remove();
+			order[size++] = a;
+			for (int b : successors[a]) {
+				if (--predecessorCounts[b] == 0) queue.add(b);
+			}
+		}
+		return Arrays.copyOf(order, size);
+	}
+
+	/**
+	 * @return whether there is a cycle among the links of this plan
+	 */
+	public boolean isCyclic() {
+		return topologicalOrder.length != arcs.length;
+	}
+
+	private int[] indicesOf(Set<Node> nodeSet) {
+		int[] indices = new int[nodeSet.size()];
+		int i = 0;
+		for (Node node : nodeSet) {
+			indices[i++] = nodeIndex.get(node);
+		}
+		return indices;
+	}
+
+	private int[] arcIndicesOf(Set<Link> linkSet) {
+		if (linkSet == null) return new int[0];
+		int[] indices = new int[linkSet.size()];
+		int i = 0;
+		for (Link link : linkSet) {
+			indices[i++] = arcIndex.get(link.getArc());
+		}
+		return indices;
+	}
+
+	/**
+	 * @param datumName the name of a datum
+	 * @return the slot of the datum in this plan, or -1 if no node of this plan declares the datum
+	 */
+	int slotOf(String datumName) {
+		Integer slot = slotIndex.get(datumName);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * @param key the key of a datum
+	 * @return the slot of the datum in this plan, or -1 if no node of this plan declares the datum
+	 */
+	int slotOf(DatumKey<?> key) {
+		int[] slots = keySlots;
+		if (key.id < slots.length) {
+			int slot = slots[key.id];
+			if (slot != UNRESOLVED) return slot;
+		}
+		return resolve(key);
+	}
+
+	private synchronized int resolve(DatumKey<?> key) {
+		int[] slots = keySlots;
+		if (key.id >= slots.length) { // grown by a copy, as readers do not lock
+			int length = slots.length;
+			slots = Arrays.copyOf(slots, Math.max(key.id + 1, 2 * length));
+			Arrays.fill(slots, length, slots.length, UNRESOLVED);
+		}
+		int slot = slotOf(key.getName());
+		slots[key.id] = slot; // an int is written atomically, so a reader sees it or UNRESOLVED
+		keySlots = slots;
+		return slot;
+	}
+
+	/**
+	 * @param arc the arc
+	 * @return the index of the arc in this plan, or -1 if the arc is not in this plan
+	 */
+	public int indexOf(Arc arc) {
+		Graph.Index index = arc.graphIndex;
+		if (index != null && index.graph == graph) return index.index;
+		Integer i = arcIndex.get(arc.original());
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * @param node the node
+	 * @return the index of the node in this plan, or -1 if the node is not in this plan
+	 */
+	public int indexOf(Node node) {
+		Graph.Index index = node.graphIndex;
+		if (index != null && index.graph == graph) return index.index;
+		Integer i = nodeIndex.get(node);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * @return the number of arcs in this plan
+	 */
+	public int arcCount() {
+		return arcs.length;
+	}
+
+	/**
+	 * @return the number of nodes in this plan
+	 */
+	public int nodeCount() {
+		return nodes.length;
+	}
+}
@@ -0,0 +1,130 @@
+package org.trikkle;
+
+import org.trikkle.annotations.Input;
+import org.trikkle.annotations.Output;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The binder of arc classes whose binder was not generated, which accesses their fields by reflection.
+ */
+final class ReflectiveBinder extends ArcBinder {
+	private final Field[] inputs, outputs;
+
+	ReflectiveBinder(Class<?> type, Field[] inputs, Field[] outputs) {
+		super(type, namesOf(inputs), typesOf(inputs), namesOf(outputs), typesOf(outputs));
+		this.inputs = inputs;
+		this.outputs = outputs;
+	}
+
+	/**
+	 * @return the binder of the declared fields of the class, or null if none is annotated
+	 */
+	static ReflectiveBinder of(Class<?> type) {
+		List<Field> inputs = new ArrayList<>(), outputs = new ArrayList<>();
+		for (Field field : type.getDeclaredFields()) {
+			if (field.isAnnotationPresent(Input.class)) {
+				inputs.add(field);
+			} else if (field.isAnnotationPresent(Output.class)) {
+				outputs.add(field);
+			} else {
+				continue;
+			}
+			field.setAccessible(true);
+		}
+		if (inputs.isEmpty() && outputs.isEmpty()) return null;
+		return new ReflectiveBinder(type, inputs.toArray(new Field[0]), outputs.toArray(new Field[0]));
+	}
+
+	private static String[] namesOf(Field[] fields) {
+		String[] names = new String[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			String name = fields[i].isAnnotationPresent(Input.class) ? fields[i].getAnnotation(Input.class).name() :
+					fields[i].getAnnotation(Output.class).name();
+			names[i] = name.isEmpty() ? fields[i].getName() : name;
+		}
+		return names;
+	}
+
+	private static Class<?>[] typesOf(Field[] fields) {
+		Class<?>[] types = new Class<?>[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			types[i] = fields[i].getType();
+		}
+		return types;
+	}
+
+	@Override
+	protected void set(Arc arc, int input, Object datum) {
+		try {
+			inputs[input].set(arc, datum);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected void setDouble(Arc arc, int input, double datum) {
+		try {
+			inputs[input].setDouble(arc, datum);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected void setLong(Arc arc, int input, long datum) {
+		try {
+			inputs[input].setLong(arc, datum);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected void setInt(Arc arc, int input, int datum) {
+		try {
+			inputs[input].setInt(arc, datum);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected Object get(Arc arc, int output) {
+		try {
+			return outputs[output].get(arc);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected double getDouble(Arc arc, int output) {
+		try {
+			return outputs[output].getDouble(arc);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected long getLong(Arc arc, int output) {
+		try {
+			return outputs[output].getLong(arc);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	protected int getInt(Arc arc, int output) {
+		try {
+			return outputs[output].getInt(arc);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
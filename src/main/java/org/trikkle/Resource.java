@@ -0,0 +1,127 @@
+package org.trikkle;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A shared resource, such as a connection pool or a memory-hungry native library, that no more than a fixed number of
+ * arcs may use at a time (a bulkhead). Arcs declare the resource they use with {@link Arc#setResource(Resource)}.
+ * <p>
+ * An overseer takes a permit of the resource when it dispatches an arc that uses it, and gives the permit back when the
+ * arc returns. An arc that is runnable while no permit is available stays {@link ArcStatus#IDLE} instead of blocking a
+ * thread, and becomes runnable again once a permit is given back. The permits are shared by every overseer that runs
+ * an arc using the resource.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Arc#setResource(Resource)
+ * @since 0.1.0
+ */
+public final class Resource {
+	private final String name;
+	private final int permits;
+	private final AtomicInteger available;
+	private final Queue<Runnable> waiters = new ConcurrentLinkedQueue<>(); // called once, see await(Runnable)
+
+	/**
+	 * Creates a resource that at most {@code permits} arcs may use at a time.
+	 *
+	 * @param name    the name of the resource
+	 * @param permits the number of arcs that may use the resource at a time
+	 * @throws NullPointerException     if the name is null
+	 * @throws IllegalArgumentException if the number of permits is less than 1
+	 */
+	public Resource(String name, int permits) {
+		if (name == null) {
+			throw new NullPointerException("Name cannot be null!");
+		}
+		if (permits < 1) {
+			throw new IllegalArgumentException("Resource " + name + " must have at least 1 permit!");
+		}
+		this.name = name;
+		this.permits = permits;
+		this.available = new AtomicInteger(permits);
+	}
+
+	boolean tryAcquire() {
+		while (true) {
+			int current = available.get();
+			if (current == 0) return false;
+			if (available.compareAndSet(current, current - 1)) return true;
+		}
+	}
+
+	/**
+	 * Takes a permit, blocking until one is given back if none is available. Used where an arc is run on the calling
+	 * thread rather than dispatched, so there is no overseer to leave it idle.
+	 */
+	void acquire() {
+		boolean interrupted = false;
+		while (!tryAcquire()) {
+			CountDownLatch released = new CountDownLatch(1);
+			await(released::countDown);
+			try {
+				released.await();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	void release() {
+		available.incrementAndGet();
+		wakeNext();
+	}
+
+	/**
+	 * Calls the waiter once a permit is available, which may be right away. Waiters are called in turn, one for every
+	 * permit given back, rather than all at once for the first permit, so a waiter that is called and does not take a
+	 * permit, e.g. because it no longer needs one, must call {@link #wakeNext()} to pass the permit on.
+	 */
+	void await(Runnable waiter) {
+		waiters.add(waiter);
+		if (available.get() > 0) wakeNext(); // a permit may have been given back before the waiter was added
+	}
+
+	/**
+	 * @return true if the waiter was removed before it was called
+	 */
+	boolean cancel(Runnable waiter) {
+		return waiters.remove(waiter);
+	}
+
+	/**
+	 * Calls the next waiter if a permit is available.
+	 */
+	void wakeNext() {
+		if (available.get() == 0) return;
+		Runnable waiter = waiters.poll();
+		if (waiter != null) waiter.run();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of arcs that may use the resource at a time
+	 */
+	public int getPermits() {
+		return permits;
+	}
+
+	/**
+	 * @return the number of permits that are not taken
+	 */
+	public int getAvailablePermits() {
+		return available.get();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,143 @@
+package org.trikkle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A datum moved out of the heap into a memory-mapped temporary file, see {@link Overseer#setSpillThreshold(long)}. Only
+ * {@code byte[]}, {@code int[]}, {@code long[]} and {@code double[]} datums, and read-only {@link ByteBuffer} datums,
+ * are spilled. The file is deleted as soon as it is mapped, and its pages are freed once the mapping is garbage
+ * collected, e.g. after the datum is evicted or the overseer is discarded.
+ * <p>
+ * Arrays are copied back onto the heap every time they are loaded. As a mapping holds at most
+ * {@link Integer#MAX_VALUE} bytes, arrays larger than that are split across several mappings of the file. Buffers are
+ * not copied: every load returns a read-only view of the mapping, in the byte order of the spilled buffer. Writable
+ * buffers are never spilled, as the arc that returned one may still write to it.
+ */
+final class SpilledDatum {
+	private static final int CHUNK = 1 << 30; // the bytes per mapping, a multiple of the size of every element
+	private final Class<?> type;
+	private final MappedByteBuffer[] mappings; // in the native order, but for buffers
+	private final int length; // in elements
+	private final ByteOrder order; // of the buffer
+
+	private SpilledDatum(Class<?> type, MappedByteBuffer[] mappings, int length, ByteOrder order) {
+		this.type = type;
+		this.mappings = mappings;
+		this.length = length;
+		this.order = order;
+	}
+
+	/**
+	 * @return the size of the datum in bytes, or -1 if it cannot be spilled
+	 */
+	static long sizeOf(Object datum) {
+		if (datum instanceof byte[]) return ((byte[]) datum).length;
+		if (datum instanceof int[]) return (long) ((int[]) datum).length * Integer.BYTES;
+		if (datum instanceof long[]) return (long) ((long[]) datum).length * Long.BYTES;
+		if (datum instanceof double[]) return (long) ((double[]) datum).length * Double.BYTES;
+		if (datum instanceof ByteBuffer && ((ByteBuffer) datum).isReadOnly()) return ((ByteBuffer) datum).remaining();
+		return -1;
+	}
+
+	/**
+	 * Writes the datum to a new file in the directory and maps it.
+	 *
+	 * @param datum     a datum whose {@link #sizeOf(Object) size} is not -1
+	 * @param directory the directory to create the file in
+	 * @throws UncheckedIOException if the file cannot be created, written or mapped
+	 */
+	static SpilledDatum spill(Object datum, Path directory) {
+		long size = sizeOf(datum);
+		MappedByteBuffer[] mappings = new MappedByteBuffer[(int) ((size + CHUNK - 1) / CHUNK)];
+		try {
+			Path file = Files.createTempFile(directory, "trikkle-", ".spill");
+			// the mappings outlive the channel, and the file is deleted when the channel closes
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE)) {
+				for (int i = 0; i < mappings.length; i++) {
+					long position = (long) i * CHUNK;
+					mappings[i] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+							Math.min(CHUNK, size - position));
+					mappings[i].order(ByteOrder.nativeOrder());
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (datum instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) datum;
+			mappings[0].put(buffer.duplicate()).clear(); // leaves the position of the datum alone
+			return new SpilledDatum(ByteBuffer.class, mappings, buffer.remaining(), buffer.order());
+		}
+		int offset = 0; // in elements
+		for (MappedByteBuffer mapping : mappings) {
+			if (datum instanceof byte[]) {
+				mapping.put((byte[]) datum, offset, mapping.remaining()).clear();
+				offset += mapping.capacity();
+			} else if (datum instanceof int[]) {
+				IntBuffer chunk = mapping.asIntBuffer();
+				int n = chunk.remaining();
+				chunk.put((int[]) datum, offset, n);
+				offset += n;
+			} else if (datum instanceof long[]) {
+				LongBuffer chunk = mapping.asLongBuffer();
+				int n = chunk.remaining();
+				chunk.put((long[]) datum, offset, n);
+				offset += n;
+			} else {
+				DoubleBuffer chunk = mapping.asDoubleBuffer();
+				int n = chunk.remaining();
+				chunk.put((double[]) datum, offset, n);
+				offset += n;
+			}
+		}
+		return new SpilledDatum(datum.getClass(), mappings, offset, null);
+	}
+
+	/**
+	 * @return a copy of the spilled array, or a read-only view of the mapping if the datum was a buffer
+	 */
+	Object load() {
+		if (type == ByteBuffer.class) {
+			return mappings[0].asReadOnlyBuffer().order(order); // views are big-endian until ordered
+		}
+		Object datum = type == byte[].class ? new byte[length] : type == int[].class ? new int[length] :
+				type == long[].class ? new long[length] : new double[length];
+		int offset = 0; // in elements
+		for (MappedByteBuffer mapping : mappings) {
+			ByteBuffer view = mapping.duplicate().order(ByteOrder.nativeOrder());
+			if (type == byte[].class) {
+				view.get((byte[]) datum, offset, view.remaining());
+				offset += view.capacity();
+			} else if (type == int[].class) {
+				IntBuffer chunk = view.asIntBuffer();
+				int n = chunk.remaining();
+				chunk.get((int[]) datum, offset, n);
+				offset += n;
+			} else if (type == long[].class) {
+				LongBuffer chunk = view.asLongBuffer();
+				int n = chunk.remaining();
+				chunk.get((long[]) datum, offset, n);
+				offset += n;
+			} else {
+				DoubleBuffer chunk = view.asDoubleBuffer();
+				int n = chunk.remaining();
+				chunk.get((double[]) datum, offset, n);
+				offset += n;
+			}
+		}
+		return datum;
+	}
+}
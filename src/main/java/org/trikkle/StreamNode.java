@@ -2,8 +2,6 @@ package org.trikkle;
 
 import java.util.Collections;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A {@link Node} that can have an unlimited number of datums of one name added to it. Upon the first datum added,
@@ -23,7 +21,6 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @since 0.1.0
  */
 public final class StreamNode extends Node {
-	private final AtomicInteger count = new AtomicInteger(0);
 	private int limit = -1;
 
 	public StreamNode(String datumName) {
@@ -34,16 +31,17 @@ public final class StreamNode extends Node {
 	@Override
 	// Assumes that all datums of a particular name are of the same type
 	protected void uncheckedAddDatum(String datumName, Object datum) {
+		Overseer overseer = getOverseer();
 		((Queue) overseer.getCache().get(datumName)).add(datum);
 		setUsable();
 		if (limit != -1) {
-			int c = count.getAndIncrement();
+			int c = overseer.incrementDatumCount(this) - 1;
 			if (c == limit) {
 				throw new IllegalStateException("StreamNode is already full!");
 			}
 			setProgress((double) (c + 1) / limit);
 		}
-		if (!overseer.g.endingNodes.contains(this)) {
+		if (!overseer.isEndingNode(this)) {
 			overseer.unsafeTicktock(this);
 		}
 	}
@@ -68,18 +66,6 @@ public final class StreamNode extends Node {
 		this.limit = limit;
 	}
 
-	@Override
-	public void primeWith(Overseer overseer) {
-		super.primeWith(overseer);
-		overseer.getCache().putIfAbsent(datumNames.iterator().next(), new ConcurrentLinkedQueue<>());
-	}
-
-	@Override
-	public void reset() {
-		super.reset();
-		count.set(0);
-	}
-
 	@Override
 	public String toString() {
 		return "StreamNode" + datumNames;
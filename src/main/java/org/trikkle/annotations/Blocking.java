@@ -0,0 +1,24 @@
+package org.trikkle.annotations;
+
+import org.trikkle.Arc;
+import org.trikkle.Overseer;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks an arc class as blocking, i.e. its {@link Arc#run()} method spends most of its time waiting on I/O such as
+ * database queries or file reads. Parallel overseers run blocking arcs on virtual threads instead of on their executor,
+ * so that blocked arcs neither starve the executor nor are limited to its number of threads.
+ * <p>
+ * Anonymous arc classes cannot be annotated. Use {@link Arc#setBlocking(boolean)} for those instead.
+ *
+ * @see Arc#isBlocking()
+ * @see Overseer#setVirtualThreads(boolean)
+ * @since 0.1.0
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Blocking {
+}
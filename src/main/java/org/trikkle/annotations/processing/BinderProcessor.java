@@ -0,0 +1,267 @@
+package org.trikkle.annotations.processing;
+
+import org.trikkle.ArcBinder;
+import org.trikkle.annotations.Input;
+import org.trikkle.annotations.Output;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates an {@link ArcBinder} for every arc class with {@link Input} or {@link Output} fields, so that arcs of the
+ * class are bound by plain field assignments rather than by reflection. Registered as a service, so it runs whenever
+ * this library is on the annotation processor path.
+ * <p>
+ * No binder is generated for arcs that cannot be named or accessed from their package, such as anonymous, local and
+ * private classes, nor for arcs with private or final annotated fields, or with fields of types that cannot be
+ * accessed from their package. Those arcs are bound by reflection.
+ *
+ * @since 0.1.0
+ */
+@SupportedAnnotationTypes({"org.trikkle.annotations.Input", "org.trikkle.annotations.Output"})
+public final class BinderProcessor extends AbstractProcessor {
+	private static final String ARC = "org.trikkle.Arc";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Map<TypeElement, List<VariableElement>> fieldsByArc = new LinkedHashMap<>();
+		for (Element element : roundEnv.getElementsAnnotatedWithAny(Set.of(Input.class, Output.class))) {
+			if (element.getKind() != ElementKind.FIELD) continue;
+			fieldsByArc.computeIfAbsent((TypeElement) element.getEnclosingElement(), arc -> new ArrayList<>())
+					.add((VariableElement) element);
+		}
+		for (Map.Entry<TypeElement, List<VariableElement>> entry : fieldsByArc.entrySet()) {
+			TypeElement arc = entry.getKey();
+			if (!isBindable(arc, entry.getValue())) continue;
+			try {
+				write(arc, entry.getValue());
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						"Cannot write the binder of " + arc + ": " + e.getMessage(), arc);
+			}
+		}
+		return false; // the annotations are also read at runtime
+	}
+
+	private boolean isBindable(TypeElement arc, List<VariableElement> fields) {
+		TypeElement arcType = processingEnv.getElementUtils().getTypeElement(ARC);
+		if (arcType == null || !processingEnv.getTypeUtils().isSubtype(
+				processingEnv.getTypeUtils().erasure(arc.asType()), arcType.asType())) {
+			return false;
+		}
+		for (Element enclosing = arc; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+			if (enclosing.getModifiers().contains(Modifier.PRIVATE) ||
+					((TypeElement) enclosing).getNestingKind() == NestingKind.LOCAL ||
+					((TypeElement) enclosing).getNestingKind() == NestingKind.ANONYMOUS) {
+				return false;
+			}
+		}
+		PackageElement arcPackage = processingEnv.getElementUtils().getPackageOf(arc);
+		for (VariableElement field : fields) {
+			if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL) ||
+					field.getModifiers().contains(Modifier.STATIC)) {
+				return false;
+			}
+			if (!isAccessible(processingEnv.getTypeUtils().erasure(field.asType()), arcPackage)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the binder, in the package of the arc, can name the erased type
+	 */
+	private boolean isAccessible(TypeMirror type, PackageElement arcPackage) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			return isAccessible(((ArrayType) type).getComponentType(), arcPackage);
+		}
+		if (type.getKind() != TypeKind.DECLARED) return type.getKind().isPrimitive();
+		Element element = ((DeclaredType) type).asElement();
+		boolean samePackage = processingEnv.getElementUtils().getPackageOf(element).equals(arcPackage);
+		for (; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			Set<Modifier> modifiers = element.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE) || !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void write(TypeElement arc, List<VariableElement> fields) throws IOException {
+		Elements elements = processingEnv.getElementUtils();
+		String packageName = elements.getPackageOf(arc).getQualifiedName().toString();
+		String qualifiedBinderName = ArcBinder.binderNameOf(elements.getBinaryName(arc).toString());
+		String binderName = qualifiedBinderName.substring(qualifiedBinderName.lastIndexOf('.') + 1);
+		String arcName = processingEnv.getTypeUtils().erasure(arc.asType()).toString();
+
+		List<VariableElement> inputs = new ArrayList<>(), outputs = new ArrayList<>();
+		for (VariableElement field : fields) { // like reflection, a field that is both is an input
+			(field.getAnnotation(Input.class) != null ? inputs : outputs).add(field);
+		}
+
+		Writer file = processingEnv.getFiler().createSourceFile(qualifiedBinderName, arc).openWriter();
+		try (PrintWriter out = new PrintWriter(file)) {
+			if (!packageName.isEmpty()) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			out.println("@javax.annotation.processing.Generated(\"" + BinderProcessor.class.getName() + "\")");
+			out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+			out.println("public final class " + binderName + " extends org.trikkle.ArcBinder {");
+			out.println("\tpublic " + binderName + "() {");
+			out.println("\t\tsuper(" + arcName + ".class, " + namesOf(inputs) + ", " + typesOf(inputs) + ",");
+			out.println("\t\t\t\t" + namesOf(outputs) + ", " + typesOf(outputs) + ");");
+			out.println("\t}");
+
+			out.println();
+			out.println("\t@Override");
+			out.println("\tprotected void set(org.trikkle.Arc arc, int input, Object datum) {");
+			if (inputs.isEmpty()) {
+				out.println("\t\tthrow new IndexOutOfBoundsException(input);");
+			} else {
+				out.println("\t\tswitch (input) {");
+				for (int i = 0; i < inputs.size(); i++) {
+					out.println("\t\t\tcase " + i + " -> ((" + arcName + ") arc)." + inputs.get(i).getSimpleName() +
+							" = " + unbox(inputs.get(i).asType()) + ";");
+				}
+				out.println("\t\t\tdefault -> throw new IndexOutOfBoundsException(input);");
+				out.println("\t\t}");
+			}
+			out.println("\t}");
+			for (TypeKind kind : List.of(TypeKind.DOUBLE, TypeKind.LONG, TypeKind.INT)) {
+				writePrimitiveSetter(out, arcName, inputs, kind);
+			}
+
+			out.println();
+			out.println("\t@Override");
+			out.println("\tprotected Object get(org.trikkle.Arc arc, int output) {");
+			if (outputs.isEmpty()) { // a switch expression needs at least one result
+				out.println("\t\tthrow new IndexOutOfBoundsException(output);");
+			} else {
+				out.println("\t\treturn switch (output) {");
+				for (int i = 0; i < outputs.size(); i++) {
+					out.println("\t\t\tcase " + i + " -> ((" + arcName + ") arc)." + outputs.get(i).getSimpleName() +
+							";");
+				}
+				out.println("\t\t\tdefault -> throw new IndexOutOfBoundsException(output);");
+				out.println("\t\t};");
+			}
+			out.println("\t}");
+			for (TypeKind kind : List.of(TypeKind.DOUBLE, TypeKind.LONG, TypeKind.INT)) {
+				writePrimitiveGetter(out, arcName, outputs, kind);
+			}
+			out.println("}");
+		}
+	}
+
+	/**
+	 * Overrides the setter of the primitive type, so that datums of that type are not boxed.
+	 */
+	private void writePrimitiveSetter(PrintWriter out, String arcName, List<VariableElement> inputs, TypeKind kind) {
+		String type = kind.name().toLowerCase(Locale.ROOT);
+		String suffix = Character.toUpperCase(type.charAt(0)) + type.substring(1);
+		StringBuilder cases = new StringBuilder();
+		for (int i = 0; i < inputs.size(); i++) {
+			if (inputs.get(i).asType().getKind() != kind) continue;
+			cases.append("\t\t\tcase ").append(i).append(" -> ((").append(arcName).append(") arc).")
+					.append(inputs.get(i).getSimpleName()).append(" = datum;\n");
+		}
+		if (cases.length() == 0) return;
+		out.println();
+		out.println("\t@Override");
+		out.println("\tprotected void set" + suffix + "(org.trikkle.Arc arc, int input, " + type + " datum) {");
+		out.println("\t\tswitch (input) {");
+		out.print(cases);
+		out.println("\t\t\tdefault -> super.set" + suffix + "(arc, input, datum);");
+		out.println("\t\t}");
+		out.println("\t}");
+	}
+
+	private void writePrimitiveGetter(PrintWriter out, String arcName, List<VariableElement> outputs, TypeKind kind) {
+		String type = kind.name().toLowerCase(Locale.ROOT);
+		String suffix = Character.toUpperCase(type.charAt(0)) + type.substring(1);
+		StringBuilder cases = new StringBuilder();
+		for (int i = 0; i < outputs.size(); i++) {
+			if (outputs.get(i).asType().getKind() != kind) continue;
+			cases.append("\t\t\tcase ").append(i).append(" -> ((").append(arcName).append(") arc).")
+					.append(outputs.get(i).getSimpleName()).append(";\n");
+		}
+		if (cases.length() == 0) return;
+		out.println();
+		out.println("\t@Override");
+		out.println("\tprotected " + type + " get" + suffix + "(org.trikkle.Arc arc, int output) {");
+		out.println("\t\treturn switch (output) {");
+		out.print(cases);
+		out.println("\t\t\tdefault -> super.get" + suffix + "(arc, output);");
+		out.println("\t\t};");
+		out.println("\t}");
+	}
+
+	/**
+	 * @return an expression converting {@code datum} to the type of a field
+	 */
+	private String unbox(TypeMirror type) {
+		return switch (type.getKind()) {
+			case DOUBLE -> "asDouble(datum)";
+			case LONG -> "asLong(datum)";
+			case INT -> "asInt(datum)";
+			case FLOAT -> "asFloat(datum)";
+			case SHORT -> "asShort(datum)";
+			case BOOLEAN -> "(Boolean) datum";
+			case BYTE -> "(Byte) datum";
+			case CHAR -> "(Character) datum";
+			default -> "(" + processingEnv.getTypeUtils().erasure(type) + ") datum";
+		};
+	}
+
+	private static String namesOf(List<VariableElement> fields) {
+		StringJoiner names = new StringJoiner(", ", "new String[]{", "}");
+		for (VariableElement field : fields) {
+			Input input = field.getAnnotation(Input.class);
+			String name = input != null ? input.name() : field.getAnnotation(Output.class).name();
+			names.add(quote(name.isEmpty() ? field.getSimpleName().toString() : name));
+		}
+		return names.toString();
+	}
+
+	private String typesOf(List<VariableElement> fields) {
+		StringJoiner types = new StringJoiner(", ", "new Class<?>[]{", "}");
+		for (VariableElement field : fields) {
+			types.add(processingEnv.getTypeUtils().erasure(field.asType()) + ".class");
+		}
+		return types.toString();
+	}
+
+	private static String quote(String string) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (char c : string.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < ' ' || c > '~') {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
@@ -0,0 +1,152 @@
+package org.trikkle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchTest {
+	@Test
+	void columnarTest() {
+		AtomicInteger batchCalls = new AtomicInteger(0);
+		Arc squarer = new BatchArc("squarer") {
+			@Override
+			protected Map<String, List<Object>> runBatch(Map<String, List<Object>> inputs, int rows) {
+				batchCalls.incrementAndGet();
+				List<Object> squared = new ArrayList<>(rows);
+				for (Object x : inputs.get("x")) {
+					squared.add((int) x * (int) x);
+				}
+				return Map.of("squared", squared);
+			}
+		};
+		Arc incrementer = new AutoArc("incrementer") {
+			@Override
+			protected void run() {
+				int squared = getDatum("squared");
+				returnDatum("result", squared + 1);
+			}
+		};
+		Node squaredNode = new DiscreteNode("squared");
+		Plan plan = new Plan(new Graph(
+				new Link(Set.of(new DiscreteNode("x")), squarer, squaredNode),
+				new Link(Set.of(squaredNode), incrementer, new DiscreteNode("result"))));
+
+		Batch batch = new Batch(plan);
+		assertTrue(batch.isColumnar());
+		List<Map<String, Object>> records = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			records.add(Map.of("x", i));
+		}
+		List<Map<String, Object>> results = batch.run(records);
+		assertEquals(1, batchCalls.get());
+		assertEquals(1000, results.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i * i + 1, results.get(i).get("result"));
+		}
+
+		// a batch arc run by an ordinary overseer gets columns of one row
+		Overseer overseer = new Overseer(plan);
+		overseer.addStartingDatum("x", 3);
+		overseer.start();
+		assertEquals(10, overseer.getResultCache().get("result"));
+		assertEquals(2, batchCalls.get());
+
+		assertThrows(IllegalStateException.class, () -> batch.run(List.of(Map.of())));
+	}
+
+	@Test
+	void fallbackTest() {
+		Arc doubler = new Arc(false) {
+			@Override
+			protected void run() {
+				int x = getDatum("x");
+				returnDatum("doubled", 2 * x);
+				setStatus(ArcStatus.FINISHED);
+			}
+		};
+		Batch batch = new Batch(new Plan(new Graph(
+				new Link(Set.of(new DiscreteNode("x")), doubler, new DiscreteNode("doubled")))));
+		assertFalse(batch.isColumnar());
+
+		List<Map<String, Object>> results = batch.run(List.of(Map.of("x", 1), Map.of("x", 2), Map.of("x", 3)));
+		assertEquals(List.of(2, 4, 6), results.stream().map(result -> result.get("doubled")).toList());
+	}
+
+	@Test
+	void resourceTest() {
+		Resource db = new Resource("db", 1);
+		Arc squarer = new BatchArc("squarer") {
+			@Override
+			protected Map<String, List<Object>> runBatch(Map<String, List<Object>> inputs, int rows) {
+				assertEquals(0, db.getAvailablePermits());
+				List<Object> squared = new ArrayList<>(rows);
+				for (Object x : inputs.get("x")) {
+					squared.add((int) x * (int) x);
+				}
+				return Map.of("squared", squared);
+			}
+		};
+		Arc incrementer = new AutoArc("incrementer") {
+			@Override
+			protected void run() {
+				assertEquals(0, db.getAvailablePermits());
+				int squared = getDatum("squared");
+				returnDatum("result", squared + 1);
+			}
+		};
+		squarer.setResource(db);
+		incrementer.setResource(db);
+		Node squaredNode = new DiscreteNode("squared");
+		Plan plan = new Plan(new Graph(
+				new Link(Set.of(new DiscreteNode("x")), squarer, squaredNode),
+				new Link(Set.of(squaredNode), incrementer, new DiscreteNode("result"))));
+
+		List<Map<String, Object>> results = new Batch(plan).run(
+				List.of(Map.of("x", 1), Map.of("x", 2), Map.of("x", 3)));
+		assertEquals(10, results.get(2).get("result"));
+		assertEquals(1, db.getAvailablePermits());
+	}
+
+	@Test
+	void parallelTest() {
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		Arc doubler = new AutoArc("doubler") {
+			@Override
+			protected void run() {
+				threads.add(Thread.currentThread());
+				int x = getDatum("x");
+				returnDatum("doubled", 2 * x);
+			}
+		};
+		Plan plan = new Plan(new Graph(new Link(Set.of(new DiscreteNode("x")), doubler, new DiscreteNode("doubled"))));
+		List<Map<String, Object>> records = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			records.add(Map.of("x", i));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Batch batch = new Batch(plan);
+			batch.setExecutor(pool);
+			List<Map<String, Object>> results = batch.run(records);
+			for (int i = 0; i < 100; i++) {
+				assertEquals(2 * i, results.get(i).get("doubled"));
+			}
+			assertTrue(threads.contains(Thread.currentThread())); // the first chunk
+			assertTrue(threads.size() > 1);
+
+			threads.clear();
+			batch.setParallel(false);
+			batch.run(records);
+			assertEquals(Set.of(Thread.currentThread()), threads);
+		} finally {
+			pool.shutdown();
+		}
+		assertThrows(NullPointerException.class, () -> new Batch(plan).setExecutor(null));
+	}
+}
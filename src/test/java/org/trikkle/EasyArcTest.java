@@ -315,4 +315,108 @@ public class EasyArcTest {
 
 		assertEquals(6.1, overseer.getResultCache().get("output"));
 	}
+
+	static class SummingArc extends AutoArc {
+		@Input
+		double x;
+		@Input(name = "count")
+		int n;
+		@Input
+		String label;
+		@Output
+		long total;
+		@Output(name = "summary")
+		String text;
+
+		@Override
+		protected void run() {
+			total = Math.round(x * n);
+			text = label + "=" + total;
+		}
+	}
+
+	@Test
+	void generatedBinderTest() {
+		ArcBinder binder = ArcBinder.of(SummingArc.class);
+		assertEquals(ArcBinder.binderNameOf(SummingArc.class), binder.getClass().getName());
+		assertEquals("org.trikkle.EasyArcTest__SummingArc_Binder", binder.getClass().getName());
+		assertSame(binder, ArcBinder.of(SummingArc.class));
+		assertEquals(SummingArc.class, binder.getArcClass());
+		assertNotEquals(ArcBinder.binderNameOf("p.Foo$Bar"), ArcBinder.binderNameOf("p.Foo_Bar"));
+		assertNotEquals(ArcBinder.binderNameOf("p.Foo$_Bar"), ArcBinder.binderNameOf("p.Foo_$Bar"));
+
+		Arc anonymous = new AutoArc() {
+			@Input
+			double x;
+
+			@Override
+			protected void run() {
+			}
+		};
+		assertEquals(ReflectiveBinder.class, ArcBinder.of(anonymous.getClass()).getClass());
+
+		Arc arc = new SummingArc();
+		assertEquals(Set.of("x", "count", "label"), arc.getInputDatumNames());
+		assertEquals(Set.of("total", "summary"), arc.getOutputDatumNames());
+
+		Overseer overseer = new Overseer(new Graph(new Link(arc)));
+		overseer.addStartingDatum("x", 2.5);
+		overseer.addStartingDatum("count", 3);
+		overseer.addStartingDatum("label", "sum");
+		overseer.start();
+
+		assertEquals(8L, overseer.getResultCache().get("total"));
+		assertEquals("sum=8", overseer.getResultCache().get("summary"));
+	}
+
+	static class InputOnlyArc extends AutoArc {
+		@Input
+		short small;
+		@Input
+		float ratio;
+
+		@Override
+		protected void run() {
+		}
+	}
+
+	static class OutputOnlyArc extends AutoArc {
+		@Output
+		int answer = 42;
+
+		@Override
+		protected void run() {
+		}
+	}
+
+	private static class Secret {
+	}
+
+	static class SecretArc extends AutoArc {
+		@Input
+		Secret secret;
+
+		@Override
+		protected void run() {
+		}
+	}
+
+	@Test
+	void generatedBinderEdgeCasesTest() {
+		ArcBinder inputOnly = ArcBinder.of(InputOnlyArc.class);
+		assertEquals(ArcBinder.binderNameOf(InputOnlyArc.class), inputOnly.getClass().getName());
+		InputOnlyArc arc = new InputOnlyArc();
+		inputOnly.set(arc, 0, (byte) 7); // widened like Field#set
+		inputOnly.set(arc, 1, 'a');
+		assertEquals(7, arc.small);
+		assertEquals(97f, arc.ratio);
+		assertThrows(IndexOutOfBoundsException.class, () -> inputOnly.get(arc, 0));
+
+		ArcBinder outputOnly = ArcBinder.of(OutputOnlyArc.class);
+		assertEquals(ArcBinder.binderNameOf(OutputOnlyArc.class), outputOnly.getClass().getName());
+		assertEquals(42, outputOnly.getInt(new OutputOnlyArc(), 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> outputOnly.set(new OutputOnlyArc(), 0, 1));
+
+		assertEquals(ReflectiveBinder.class, ArcBinder.of(SecretArc.class).getClass());
+	}
 }
@@ -5,8 +5,15 @@ import org.junit.jupiter.api.Test;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class FunctionRacerTest {
 	private static int sumUntil(int n) {
@@ -63,4 +70,47 @@ class FunctionRacerTest {
 		assertEquals(sumUntil(n), sumUntil2(n));
 		assertEquals(sumUntil2(n), results.get("sum"));
 	}
+
+	@Test
+	void cancellationTest() throws Exception {
+		CountDownLatch cancelled = new CountDownLatch(3);
+		Semaphore slowStarted = new Semaphore(0);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		FunctionRacer functionRacer = new FunctionRacer(Set.of(datumMap -> {
+			slowStarted.release();
+			while (!FunctionRacer.isCancelled()) {
+				Thread.onSpinWait(); // never finishes by itself
+			}
+			cancelled.countDown();
+			return Map.of("winner", "slow");
+		}, datumMap -> {
+			slowStarted.acquireUninterruptibly(); // or the slow function might not start before the race is won
+			return Map.of("winner", "fast");
+		}), executor);
+
+		for (int i = 0; i < 3; i++) { // a racer can be raced again
+			CompletableFuture<Map<String, Object>> result = functionRacer.applyAsync(Map.of());
+			assertEquals("fast", result.get(5, TimeUnit.SECONDS).get("winner"));
+		}
+		assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+		assertFalse(FunctionRacer.isCancelled());
+		executor.shutdown();
+	}
+
+	@Test
+	void failureTest() {
+		FunctionRacer functionRacer = new FunctionRacer(Set.of(datumMap -> {
+			throw new IllegalArgumentException("first");
+		}, datumMap -> Map.of("sum", 1)));
+		assertEquals(1, functionRacer.apply(Map.of()).get("sum"));
+
+		FunctionRacer failing = new FunctionRacer(Set.of(datumMap -> {
+			throw new IllegalArgumentException("only");
+		}));
+		assertThrows(IllegalArgumentException.class, () -> failing.apply(Map.of()));
+		ExecutionException e = assertThrows(ExecutionException.class, () -> failing.applyAsync(Map.of()).get());
+		assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+		assertThrows(IllegalStateException.class, () -> new FunctionRacer(Set.of()).apply(Map.of()));
+	}
 }
@@ -0,0 +1,147 @@
+package org.trikkle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalTest {
+	@Test
+	void updateTest() {
+		AtomicInteger aRuns = new AtomicInteger(0), bRuns = new AtomicInteger(0), sumRuns = new AtomicInteger(0);
+		Arc aDoubler = new AutoArc("aDoubler") {
+			@Override
+			protected void run() {
+				aRuns.incrementAndGet();
+				int a = getDatum("a");
+				returnDatum("a2", 2 * a);
+			}
+		};
+		Arc bDoubler = new AutoArc("bDoubler") {
+			@Override
+			protected void run() {
+				bRuns.incrementAndGet();
+				int b = getDatum("b");
+				returnDatum("b2", 2 * b);
+			}
+		};
+		Arc adder = new AutoArc("adder") {
+			@Override
+			protected void run() {
+				sumRuns.incrementAndGet();
+				int a2 = getDatum("a2");
+				int b2 = getDatum("b2");
+				returnDatum("sum", a2 + b2);
+			}
+		};
+		Node a2 = new DiscreteNode("a2"), b2 = new DiscreteNode("b2");
+		Plan plan = new Plan(new Graph(
+				new Link(Set.of(new DiscreteNode("a")), aDoubler, a2),
+				new Link(Set.of(new DiscreteNode("b")), bDoubler, b2),
+				new Link(Set.of(a2, b2), adder, new DiscreteNode("sum"))));
+
+		Incremental incremental = new Incremental(plan);
+		assertThrows(IllegalStateException.class, () -> incremental.update(Map.of("a", 1)));
+		assertEquals(6, incremental.run(Map.of("a", 1, "b", 2)).get("sum"));
+		assertEquals(3, incremental.getRerunArcCount());
+
+		assertEquals(10, incremental.update(Map.of("a", 3)).get("sum"));
+		assertEquals(2, incremental.getRerunArcCount());
+		assertEquals(List.of(2, 1, 2), List.of(aRuns.get(), bRuns.get(), sumRuns.get()));
+		assertEquals(ArcStatus.FINISHED, incremental.getOverseer().getStatus(bDoubler));
+
+		// unchanged datums recompute nothing
+		assertEquals(10, incremental.update(Map.of("a", 3, "b", 2)).get("sum"));
+		assertEquals(0, incremental.getRerunArcCount());
+		assertEquals(List.of(2, 1, 2), List.of(aRuns.get(), bRuns.get(), sumRuns.get()));
+
+		assertThrows(IllegalArgumentException.class, () -> incremental.update(Map.of("a2", 0)));
+	}
+
+	@Test
+	void sharedNodeTest() {
+		AtomicInteger bRuns = new AtomicInteger(0);
+		Arc a = new AutoArc("a") {
+			@Override
+			protected void run() {
+				int s1 = getDatum("s1");
+				returnDatum("x", s1 + 1);
+			}
+		};
+		Arc b = new AutoArc("b") {
+			@Override
+			protected void run() {
+				bRuns.incrementAndGet();
+				int s2 = getDatum("s2");
+				returnDatum("y", s2 + 1);
+			}
+		};
+		Arc adder = new AutoArc("adder") {
+			@Override
+			protected void run() {
+				int x = getDatum("x");
+				int y = getDatum("y");
+				returnDatum("sum", x + y);
+			}
+		};
+		Node xy = new DiscreteNode("x", "y");
+		Plan plan = new Plan(new Graph(
+				new Link(Set.of(new DiscreteNode("s1")), a, xy),
+				new Link(Set.of(new DiscreteNode("s2")), b, xy),
+				new Link(Set.of(xy), adder, new DiscreteNode("sum"))));
+
+		Incremental incremental = new Incremental(plan);
+		assertEquals(5, incremental.run(Map.of("s1", 1, "s2", 2)).get("sum"));
+
+		// b fills the same node as a, so it is run again even though s2 did not change
+		assertEquals(9, incremental.update(Map.of("s1", 5)).get("sum"));
+		assertEquals(3, incremental.getRerunArcCount());
+		assertEquals(2, bRuns.get());
+	}
+
+	@Test
+	void evictionTest() {
+		AtomicInteger bRuns = new AtomicInteger(0);
+		Arc aDoubler = new AutoArc("aDoubler") {
+			@Override
+			protected void run() {
+				int a = getDatum("a");
+				returnDatum("a2", 2 * a);
+			}
+		};
+		Arc bDoubler = new AutoArc("bDoubler") {
+			@Override
+			protected void run() {
+				bRuns.incrementAndGet();
+				int b = getDatum("b");
+				returnDatum("b2", 2 * b);
+			}
+		};
+		Arc adder = new AutoArc("adder") {
+			@Override
+			protected void run() {
+				int a2 = getDatum("a2");
+				int b2 = getDatum("b2");
+				returnDatum("sum", a2 + b2);
+			}
+		};
+		Node a2 = new DiscreteNode("a2"), b2 = new DiscreteNode("b2");
+		Plan plan = new Plan(new Graph(
+				new Link(Set.of(new DiscreteNode("a")), aDoubler, a2),
+				new Link(Set.of(new DiscreteNode("b")), bDoubler, b2),
+				new Link(Set.of(a2, b2), adder, new DiscreteNode("sum"))));
+
+		// b2 would be evicted once the adder consumed it, and the update needs it again
+		Incremental incremental = new Incremental(plan, overseer -> overseer.setEviction(true));
+		Map<String, Object> first = incremental.run(Map.of("a", 1, "b", 2));
+		assertEquals(6, first.get("sum"));
+		assertTrue(incremental.getOverseer().getCache().containsKey("b2"));
+
+		assertEquals(10, incremental.update(Map.of("a", 3)).get("sum"));
+		assertEquals(14, incremental.update(Map.of("a", 5)).get("sum"));
+		assertEquals(1, bRuns.get());
+		assertEquals(6, first.get("sum")); // the result cache of a superseded overseer is kept
+	}
+}
@@ -0,0 +1,73 @@
+package org.trikkle;
+
+import org.junit.jupiter.api.Test;
+import org.trikkle.annotations.Input;
+import org.trikkle.annotations.Output;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoTest {
+	@Test
+	void memoTest() {
+		AtomicInteger runs = new AtomicInteger(0);
+		Arc squarer = new AutoArc("squarer") {
+			@Input
+			int x;
+			@Output
+			int squared;
+
+			@Override
+			protected void run() {
+				runs.incrementAndGet();
+				squared = x * x;
+			}
+		};
+		Memo memo = new Memo(2);
+		squarer.setMemo(memo);
+		Plan plan = new Plan(new Graph(new Link(Set.of(new DiscreteNode("x")), squarer, new DiscreteNode("squared"))));
+
+		int[] inputs = {1, 2, 1, 2, 3, 1};
+		for (int x : inputs) {
+			Overseer overseer = new Overseer(plan);
+			overseer.addStartingDatum("x", x);
+			overseer.start();
+			assertEquals(x * x, overseer.getResultCache().get("squared"));
+			assertEquals(ArcStatus.FINISHED, overseer.getStatus(squarer));
+		}
+		assertEquals(4, runs.get()); // 1, 2 and 3 once, then 1 again after it was evicted by 3
+		assertEquals(2, memo.getHits());
+		assertEquals(4, memo.getMisses());
+		assertEquals(2, memo.getEvictions());
+		assertEquals(2, memo.size());
+
+		Arc unannotated = new AutoArc() {
+			@Override
+			protected void run() {
+			}
+		};
+		assertThrows(IllegalArgumentException.class, () -> unannotated.setMemo(memo));
+		assertThrows(IllegalArgumentException.class, () -> new Memo(0));
+	}
+
+	@Test
+	void weightTest() {
+		Memo memo = new Memo(10, outputs -> ((String) outputs[0]).length());
+		Arc arc = new AutoArc() {
+			@Override
+			protected void run() {
+			}
+		};
+		memo.put(arc, new Object[]{1}, new Object[]{"abcd"});
+		memo.put(arc, new Object[]{2}, new Object[]{"abcd"});
+		assertNotNull(memo.get(arc, new Object[]{1})); // now the most recently used
+		memo.put(arc, new Object[]{3}, new Object[]{"abcd"});
+		assertNull(memo.get(arc, new Object[]{2}));
+		assertNotNull(memo.get(arc, new Object[]{1}));
+		assertEquals(8, memo.getWeight());
+		memo.put(arc, new Object[]{4}, new Object[]{"too long to fit"});
+		assertNull(memo.get(arc, new Object[]{4}));
+	}
+}
@@ -1,11 +1,29 @@
 package org.trikkle;
 
 import org.junit.jupiter.api.Test;
+import org.trikkle.annotations.Blocking;
+import org.trikkle.annotations.Input;
+import org.trikkle.annotations.Output;
 import org.trikkle.viz.GraphViz;
 import org.trikkle.viz.LogUtils;
 import org.trikkle.viz.MermaidGraphViz;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
@@ -595,4 +613,1135 @@ class OverseerTest {
 		overseer.start();
 		assertEquals(2, tick2.get());
 	}
+
+	@Test
+	void dependencyCountingTest() {
+		List<Link> links = new ArrayList<>();
+		Node first = new DiscreteNode("x0");
+		Node previous = first;
+		for (int i = 1; i <= 100; i++) {
+			String inputName = "x" + (i - 1);
+			String outputName = "x" + i;
+			Arc arc = new AutoArc() {
+				@Override
+				public void run() {
+					int x = getDatum(inputName);
+					returnDatum(outputName, x + 1);
+				}
+			};
+			Node next = new DiscreteNode(outputName);
+			// every link also depends on the first node to check that shared dependencies are counted correctly
+			links.add(new Link(previous == first ? Set.of(first) : Set.of(previous, first), arc, next));
+			previous = next;
+		}
+
+		Overseer overseer = new Overseer(new Graph(links));
+		overseer.setDependencyCounting(true);
+		overseer.setLogging(true);
+		overseer.addStartingDatum("x0", 0);
+		overseer.start();
+
+		assertEquals(100, overseer.getResultCache().get("x100"));
+		assertEquals(100, overseer.getTick());
+		for (Link link : links) {
+			assertEquals(ArcStatus.FINISHED, link.getArc().getStatus());
+		}
+	}
+
+	@Test
+	void sharedPlanTest() {
+		Arc doubler = new AutoArc("doubler") {
+			@Input
+			int x;
+			@Output
+			int doubled;
+
+			@Override
+			public void run() {
+				doubled = 2 * x;
+			}
+		};
+		Arc adder = new AutoArc("adder") {
+			@Override
+			public void run() {
+				int x = getDatum("x");
+				int doubled = getDatum("doubled");
+				returnDatum("sum", x + doubled);
+			}
+		};
+		Node xNode = new DiscreteNode("x");
+		Node doubledNode = new DiscreteNode("doubled");
+		Graph graph = new Graph(
+				new Link(Set.of(xNode), doubler, doubledNode),
+				new Link(Set.of(doubledNode), adder, new DiscreteNode("sum")));
+		Plan plan = new Plan(graph);
+
+		List<Overseer> overseers = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Overseer overseer = new Overseer(plan);
+			overseer.addStartingDatum("x", i);
+			overseers.add(overseer);
+		}
+		overseers.parallelStream().forEach(Overseer::start);
+
+		for (int i = 0; i < 1000; i++) {
+			Overseer overseer = overseers.get(i);
+			assertEquals(3 * i, overseer.getResultCache().get("sum"));
+			assertEquals(ArcStatus.FINISHED, overseer.getStatus(adder));
+			assertEquals(1, overseer.getProgress(doubledNode));
+		}
+		// the arcs and nodes themselves were never primed
+		assertEquals(ArcStatus.IDLE, adder.getStatus());
+		assertFalse(xNode.isUsable());
+	}
+
+	@Test
+	void concurrentFieldsTest() throws Exception {
+		CountDownLatch bothRunning = new CountDownLatch(2);
+		Arc doubler = new AutoArc("doubler") {
+			@Input
+			int x;
+			@Output
+			int doubled;
+
+			@Override
+			public void run() {
+				bothRunning.countDown();
+				try { // both overseers are in run() at once, each with fields of its own
+					doubled = bothRunning.await(5, TimeUnit.SECONDS) ? 2 * x : -1;
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		Graph graph = new Graph(new Link(Set.of(new DiscreteNode("x")), doubler, new DiscreteNode("doubled")));
+		Plan plan = graph.getPlan();
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<CompletableFuture<Object>> futures = new ArrayList<>();
+			for (int i = 1; i <= 2; i++) {
+				Overseer overseer = new Overseer(plan);
+				overseer.addStartingDatum("x", i);
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					overseer.start();
+					return overseer.getResultCache().get("doubled");
+				}, executor));
+			}
+			assertEquals(2, futures.get(0).get(10, TimeUnit.SECONDS));
+			assertEquals(4, futures.get(1).get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void graphPlanTest() {
+		Node a = new DiscreteNode("a"), b = new DiscreteNode("b"), c = new DiscreteNode("c");
+		Graph graph = new Graph(
+				new Link(Set.of(a), new AutoArc() {
+					@Override
+					protected void run() {
+					}
+				}, b),
+				new Link(Set.of(a, b), new AutoArc() {
+					@Override
+					protected void run() {
+					}
+				}, c));
+		Plan plan = graph.getPlan();
+		assertSame(plan, graph.getPlan());
+		assertSame(plan, new Overseer(graph).plan);
+
+		graph.optimizeDependencies();
+		assertNotSame(plan, graph.getPlan());
+		assertEquals(plan.indexOf(c), graph.getPlan().indexOf(c));
+	}
+
+	@Test
+	void asyncTest() throws Exception {
+		Arc squarer = new AutoArc("squarer") {
+			@Override
+			public void run() {
+				int x = getDatum("x");
+				returnDatum("squared", x * x);
+			}
+		};
+		Arc cuber = new AutoArc("cuber") {
+			@Override
+			public void run() {
+				int x = getDatum("x");
+				returnDatum("cubed", x * x * x);
+			}
+		};
+		Arc adder = new AutoArc("adder") {
+			@Override
+			public void run() {
+				int squared = getDatum("squared");
+				int cubed = getDatum("cubed");
+				returnDatum("sum", squared + cubed);
+			}
+		};
+		Node xNode = new DiscreteNode("x");
+		Node squaredNode = new DiscreteNode("squared");
+		Node cubedNode = new DiscreteNode("cubed");
+		Graph graph = new Graph(
+				new Link(Set.of(xNode), squarer, squaredNode),
+				new Link(Set.of(xNode), cuber, cubedNode),
+				new Link(Set.of(squaredNode, cubedNode), adder, new DiscreteNode("sum")));
+		Plan plan = new Plan(graph);
+
+		List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(i % 2 == 0);
+			overseer.addStartingDatum("x", i);
+			futures.add(overseer.startAsync());
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i * i + i * i * i, futures.get(i).get(5, TimeUnit.SECONDS).get("sum"));
+		}
+
+		Overseer overseer = new Overseer(graph);
+		xNode.addDatum("x", 3);
+		assertEquals(36, overseer.startAsync().get(5, TimeUnit.SECONDS).get("sum"));
+		assertThrows(IllegalStateException.class, overseer::startAsync);
+	}
+
+	@Test
+	void asyncFailureTest() {
+		Arc thrower = new AutoArc("thrower") {
+			@Override
+			public void run() {
+				throw new UnsupportedOperationException("boom");
+			}
+		};
+		Plan throwing = new Plan(new Graph(new Link(Set.of(), thrower, new DiscreteNode("never"))));
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> new Overseer(throwing).startAsync().get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof UnsupportedOperationException);
+
+		Arc idler = new Arc(false) {
+			@Override
+			public void run() {
+				// never fills its output node
+			}
+		};
+		Plan stalling = new Plan(new Graph(new Link(Set.of(), idler, new DiscreteNode("never"))));
+		ExecutionException e1 = assertThrows(ExecutionException.class,
+				() -> new Overseer(stalling).startAsync().get(5, TimeUnit.SECONDS));
+		assertTrue(e1.getCause() instanceof IllegalStateException);
+		assertTrue(e1.getCause().getMessage().contains("Overseer stalled!"));
+	}
+
+	@Test
+	void executorTest() {
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		List<Link> links = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			String outputName = "x" + i;
+			Arc arc = new AutoArc() {
+				@Override
+				public void run() {
+					threadNames.add(Thread.currentThread().getName());
+					returnDatum(outputName, 1);
+				}
+			};
+			links.add(new Link(Set.of(), arc, new DiscreteNode(outputName)));
+		}
+		Plan plan = new Plan(new Graph(links));
+
+		AtomicInteger submitted = new AtomicInteger(0);
+		ExecutorService service = Executors.newFixedThreadPool(2, r -> new Thread(r, "custom"));
+		Overseer overseer = new Overseer(plan);
+		overseer.setExecutor(command -> {
+			submitted.incrementAndGet();
+			service.execute(command);
+		});
+		overseer.start();
+		service.shutdown();
+		assertEquals(10, submitted.get());
+		assertEquals(Set.of("custom"), threadNames);
+		assertEquals(10, overseer.getResultCache().size());
+
+		threadNames.clear();
+		new Overseer(plan).start();
+		assertTrue(threadNames.stream().allMatch(name -> name.startsWith("trikkle-overseer-")));
+
+		assertThrows(NullPointerException.class, () -> new Overseer(plan).setExecutor(null));
+
+		Arc idler = new Arc(false) {
+			@Override
+			public void run() {
+				// never fills its output node
+			}
+		};
+		Overseer stalling = new Overseer(new Plan(new Graph(new Link(Set.of(), idler, new DiscreteNode("never")))));
+		Exception e = assertThrows(IllegalStateException.class, stalling::start);
+		assertTrue(e.getMessage().contains("Overseer stalled!"));
+	}
+
+	@Blocking
+	static class Sleeper extends AutoArc {
+		final String outputName;
+		final Set<Thread> threads;
+
+		Sleeper(String outputName, Set<Thread> threads) {
+			this.outputName = outputName;
+			this.threads = threads;
+		}
+
+		@Override
+		protected void run() {
+			threads.add(Thread.currentThread());
+			sleep(100);
+			returnDatum(outputName, true);
+		}
+	}
+
+	@Test
+	void virtualThreadTest() {
+		Set<Thread> blockingThreads = ConcurrentHashMap.newKeySet();
+		Set<Thread> cpuThreads = ConcurrentHashMap.newKeySet();
+		List<Link> links = new ArrayList<>();
+		Set<Node> slept = new HashSet<>();
+		for (int i = 0; i < 50; i++) {
+			Node node = new DiscreteNode("slept" + i);
+			slept.add(node);
+			links.add(new Link(Set.of(), new Sleeper("slept" + i, blockingThreads), node));
+		}
+		Arc counter = new AutoArc() {
+			@Override
+			protected void run() {
+				cpuThreads.add(Thread.currentThread());
+				returnDatum("done", true);
+			}
+		};
+		links.add(new Link(slept, counter, new DiscreteNode("done")));
+		Plan plan = new Plan(new Graph(links));
+		assertTrue(links.get(0).getArc().isBlocking());
+		assertFalse(counter.isBlocking());
+
+		long start = System.currentTimeMillis();
+		new Overseer(plan).start();
+		long end = System.currentTimeMillis();
+		assertTrue(end - start < 2000); // 50 sleeps of 100 ms, all at the same time
+		assertEquals(50, blockingThreads.size());
+		assertTrue(blockingThreads.stream().allMatch(Thread::isVirtual));
+		assertFalse(cpuThreads.iterator().next().isVirtual());
+
+		cpuThreads.clear();
+		Overseer overseer = new Overseer(plan);
+		overseer.setVirtualThreads(true);
+		overseer.start();
+		assertTrue(cpuThreads.iterator().next().isVirtual());
+
+		counter.setBlocking(true);
+		cpuThreads.clear();
+		new Overseer(plan).start();
+		assertTrue(cpuThreads.iterator().next().isVirtual());
+	}
+
+	@Test
+	void criticalPathTest() throws IOException {
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		List<Link> links = new ArrayList<>();
+		Node previous = null;
+		for (int i = 0; i < 5; i++) { // a chain of 5 arcs
+			String name = "chain" + i;
+			Arc arc = new AutoArc(name) {
+				@Override
+				protected void run() {
+					order.add(name);
+					returnDatum(name, true);
+				}
+			};
+			arc.setCost(100);
+			Node next = new DiscreteNode(name);
+			links.add(new Link(previous == null ? Set.of() : Set.of(previous), arc, next));
+			previous = next;
+		}
+		for (int i = 0; i < 5; i++) { // 5 arcs that cost more than any one arc of the chain
+			String name = "single" + i;
+			Arc arc = new AutoArc(name) {
+				@Override
+				protected void run() {
+					order.add(name);
+					returnDatum(name, true);
+				}
+			};
+			arc.setCost(200 + i);
+			links.add(new Link(Set.of(), arc, new DiscreteNode(name)));
+		}
+		Plan plan = new Plan(new Graph(links));
+
+		BurstHistory history = new BurstHistory();
+		Overseer overseer = new Overseer(plan);
+		overseer.setParallel(false);
+		overseer.setCriticalPathScheduling(true);
+		overseer.setBurstHistory(history);
+		overseer.start();
+		assertEquals("chain0", order.get(0));
+		order.removeIf(name -> name.startsWith("chain"));
+		assertEquals(List.of("single4", "single3", "single2", "single1", "single0"), order);
+		assertTrue(history.getAverage(links.get(0).getArc()) >= 0);
+
+		Arc unnamed = new AutoArc() {
+			@Override
+			protected void run() {
+			}
+		};
+		history.record(unnamed, 10);
+		assertEquals(10, history.getAverage(unnamed));
+		assertEquals(-1, history.getAverage(new AutoArc() {
+			@Override
+			protected void run() {
+			}
+		}));
+
+		StringWriter writer = new StringWriter();
+		history.store(writer);
+		BurstHistory loaded = BurstHistory.load(new StringReader(writer.toString()));
+		assertEquals(history.getAverage(links.get(3).getArc()), loaded.getAverage(links.get(3).getArc()));
+		assertEquals(-1, loaded.getAverage(unnamed)); // only named arcs are stored
+		assertEquals(-1, loaded.getPercentile(links.get(3).getArc(), 0.5));
+		assertThrows(IllegalArgumentException.class, () -> links.get(0).getArc().setCost(-2));
+	}
+
+	@Test
+	void resourceTest() throws Exception {
+		Resource database = new Resource("database", 2);
+		AtomicInteger running = new AtomicInteger(0);
+		AtomicInteger maxRunning = new AtomicInteger(0);
+		List<Link> links = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			String outputName = "query" + i;
+			Arc arc = new AutoArc() {
+				@Override
+				protected void run() {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					sleep(20);
+					running.decrementAndGet();
+					returnDatum(outputName, true);
+				}
+			};
+			arc.setResource(database);
+			arc.setBlocking(true); // so that the executor does not limit concurrency by itself
+			links.add(new Link(Set.of(), arc, new DiscreteNode(outputName)));
+		}
+		Plan plan = new Plan(new Graph(links));
+
+		Overseer overseer = new Overseer(plan);
+		overseer.start();
+		assertEquals(10, overseer.getResultCache().size());
+		assertEquals(2, maxRunning.get());
+
+		// two overseers share the permits
+		maxRunning.set(0);
+		CompletableFuture<Map<String, Object>> first = new Overseer(plan).startAsync();
+		CompletableFuture<Map<String, Object>> second = new Overseer(plan).startAsync();
+		assertEquals(10, first.get(5, TimeUnit.SECONDS).size());
+		assertEquals(10, second.get(5, TimeUnit.SECONDS).size());
+		assertEquals(2, maxRunning.get());
+		assertEquals(2, database.getAvailablePermits());
+
+		Overseer sequential = new Overseer(plan);
+		sequential.setParallel(false);
+		sequential.start();
+		assertEquals(10, sequential.getResultCache().size());
+
+		// a sequential overseer parks, rather than spins, while the permits are taken by others
+		assertTrue(database.tryAcquire());
+		assertTrue(database.tryAcquire());
+		Overseer parked = new Overseer(plan);
+		parked.setParallel(false);
+		Thread thread = new Thread(parked::start);
+		thread.start();
+		while (thread.getState() != Thread.State.WAITING) {
+			Thread.sleep(1);
+		}
+		database.release();
+		thread.join(5000);
+		assertEquals(10, parked.getResultCache().size());
+		database.release();
+		assertEquals(2, database.getAvailablePermits());
+
+		assertThrows(IllegalArgumentException.class, () -> new Resource("none", 0));
+	}
+
+	@Test
+	void hedgeTest() {
+		AtomicInteger attempts = new AtomicInteger(0);
+		AtomicBoolean loserInterrupted = new AtomicBoolean(false);
+		Arc flaky = new AutoArc("flaky") {
+			@Override
+			protected void run() {
+				int attempt = attempts.incrementAndGet();
+				if (attempt == 1) { // the tail
+					try {
+						Thread.sleep(10_000);
+					} catch (InterruptedException e) {
+						loserInterrupted.set(true);
+					}
+				}
+				returnDatum("result", attempt);
+			}
+		};
+		flaky.setHedge(new Hedge(0.95, 10));
+		Plan plan = new Plan(new Graph(new Link(Set.of(), flaky, new DiscreteNode("result"))));
+
+		BurstHistory history = new BurstHistory();
+		for (int i = 0; i < 20; i++) {
+			history.record(flaky, TimeUnit.MILLISECONDS.toNanos(20));
+		}
+		Overseer overseer = new Overseer(plan);
+		overseer.setBurstHistory(history);
+		long start = System.nanoTime();
+		overseer.start();
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		assertEquals(2, overseer.getResultCache().get("result"));
+		assertEquals(1, overseer.getHedgeCount());
+		assertEquals(ArcStatus.FINISHED, overseer.getStatus(flaky));
+		sleep(50);
+		assertTrue(loserInterrupted.get());
+
+		// without enough history, the arc is run once
+		attempts.set(1);
+		Overseer unhedged = new Overseer(plan);
+		unhedged.setParallel(false);
+		unhedged.setBurstHistory(new BurstHistory());
+		unhedged.start();
+		assertEquals(2, unhedged.getResultCache().get("result"));
+		assertEquals(0, unhedged.getHedgeCount());
+
+		// the second attempt needs a permit of its own
+		for (int permits : new int[]{1, 2}) {
+			Resource resource = new Resource("pool", permits);
+			Arc slow = new AutoArc("slow") {
+				@Override
+				protected void run() {
+					sleep(100);
+					returnDatum("slowResult", true);
+				}
+			};
+			slow.setResource(resource);
+			slow.setHedge(new Hedge(0.95, 10));
+			for (int i = 0; i < 20; i++) {
+				history.record(slow, TimeUnit.MILLISECONDS.toNanos(1));
+			}
+			Overseer bulkheaded = new Overseer(new Plan(new Graph(new Link(Set.of(), slow,
+					new DiscreteNode("slowResult")))));
+			bulkheaded.setBurstHistory(history);
+			bulkheaded.start();
+			assertEquals(permits - 1, bulkheaded.getHedgeCount());
+			sleep(150); // for the loser to give its permit back
+			assertEquals(permits, resource.getAvailablePermits());
+		}
+
+		Arc manual = new Arc(true) {
+			@Override
+			protected void run() {
+			}
+		};
+		assertThrows(IllegalArgumentException.class, () -> manual.setHedge(new Hedge(10, TimeUnit.MILLISECONDS)));
+	}
+
+	@Test
+	void timeoutTest() throws Exception {
+		AtomicBoolean interrupted = new AtomicBoolean(false);
+		Arc quick = new AutoArc("quick") {
+			@Override
+			protected void run() {
+				returnDatum("a", 1);
+			}
+		};
+		Arc hanging = new AutoArc("hanging") {
+			@Override
+			protected void run() {
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+				returnDatum("b", 2);
+			}
+		};
+		hanging.setTimeout(100, TimeUnit.MILLISECONDS);
+		Plan plan = new Plan(new Graph(new Link(Set.of(), quick, new DiscreteNode("a")),
+				new Link(Set.of(), hanging, new DiscreteNode("b"))));
+
+		for (boolean parallel : new boolean[]{true, false}) {
+			interrupted.set(false);
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(parallel);
+			long start = System.nanoTime();
+			OverseerTimeoutException e = assertThrows(OverseerTimeoutException.class, overseer::start);
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+			assertSame(hanging, e.getArc());
+			assertEquals(1, e.getPartialCache().get("a"));
+			assertFalse(e.getPartialCache().containsKey("b"));
+			assertTrue(overseer.isTimedOut());
+			sleep(50);
+			assertTrue(interrupted.get());
+			assertFalse(Thread.currentThread().isInterrupted());
+		}
+
+		// a deadline over an arc that polls instead of blocking
+		Arc spinning = new AutoArc("spinning") {
+			@Override
+			protected void run() {
+				while (!getOverseer().isTimedOut()) {
+					Thread.onSpinWait();
+				}
+			}
+		};
+		Plan spinningPlan = new Plan(new Graph(new Link(Set.of(), spinning, new DiscreteNode("never"))));
+		Overseer overseer = new Overseer(spinningPlan);
+		overseer.setDeadline(100, TimeUnit.MILLISECONDS);
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> overseer.startAsync().get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof OverseerTimeoutException);
+		assertNull(((OverseerTimeoutException) e.getCause()).getArc());
+
+		// a deadline that is met changes nothing
+		Overseer met = new Overseer(new Plan(new Graph(new Link(Set.of(), quick, new DiscreteNode("a")))));
+		met.setDeadline(20, TimeUnit.SECONDS);
+		met.start();
+		assertEquals(1, met.getResultCache().get("a"));
+		assertFalse(met.isTimedOut());
+		assertThrows(IllegalArgumentException.class, () -> met.setDeadline(-2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void computeTest() {
+		for (boolean parallel : new boolean[]{true, false}) {
+			Map<String, Integer> runs = new ConcurrentHashMap<>();
+			Arc xArc = new AutoArc("x") {
+				@Override
+				protected void run() {
+					runs.merge("x", 1, Integer::sum);
+					int a = getDatum("a");
+					returnDatum("x", a + 1);
+				}
+			};
+			Arc yArc = new AutoArc("y") {
+				@Override
+				protected void run() {
+					runs.merge("y", 1, Integer::sum);
+					int a = getDatum("a");
+					int b = getDatum("b");
+					returnDatum("y", a + b);
+				}
+			};
+			Arc zArc = new AutoArc("z") {
+				@Override
+				protected void run() {
+					runs.merge("z", 1, Integer::sum);
+					int x = getDatum("x");
+					returnDatum("z", 2 * x);
+				}
+			};
+			Node a = new DiscreteNode("a"), b = new DiscreteNode("b"), x = new DiscreteNode("x");
+			Plan plan = new Plan(new Graph(new Link(Set.of(a), xArc, x), new Link(Set.of(a, b), yArc,
+					new DiscreteNode("y")), new Link(Set.of(x), zArc, new DiscreteNode("z"))));
+
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(parallel);
+			overseer.addStartingDatum("a", 1); // b is only needed for y
+			assertEquals(Map.of("x", 2), overseer.compute(Set.of("x")));
+			assertEquals(Map.of("x", 1), runs);
+			assertEquals(Map.of("z", 4), overseer.compute(Set.of("z")));
+			assertEquals(Map.of("x", 1, "z", 1), runs);
+			assertEquals(ArcStatus.IDLE, overseer.getStatus(yArc));
+
+			assertThrows(IllegalStateException.class, () -> overseer.compute(Set.of("y")));
+			overseer.addStartingDatum("b", 2);
+			assertEquals(Map.of("y", 3, "z", 4), overseer.compute(Set.of("y", "z")));
+			assertEquals(Map.of("x", 1, "y", 1, "z", 1), runs);
+			assertThrows(IllegalArgumentException.class, () -> overseer.compute(Set.of("w")));
+			assertThrows(IllegalStateException.class, overseer::start);
+		}
+	}
+
+	@Test
+	void computeStopsTimersTest() throws IOException, InterruptedException {
+		for (boolean parallel : new boolean[]{true, false}) {
+			Arc xArc = new AutoArc("x") {
+				@Override
+				protected void run() {
+					returnDatum("x", getInt("a") + 1);
+				}
+			};
+			Plan plan = new Plan(new Graph(new Link(Set.of(new DiscreteNode("a")), xArc, new DiscreteNode("x"))));
+			Path file = Files.createTempFile("trikkle", ".checkpoint");
+			try {
+				Overseer overseer = new Overseer(plan);
+				overseer.setParallel(parallel);
+				overseer.setCheckpointFile(file);
+				overseer.setCheckpointInterval(1, TimeUnit.MILLISECONDS);
+				overseer.addStartingDatum("a", 1);
+				assertEquals(Map.of("x", 2), overseer.compute(Set.of("x")));
+				Files.delete(file);
+				Thread.sleep(50);
+				assertFalse(Files.exists(file)); // no periodic checkpoints once compute has returned
+			} finally {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	@Test
+	void cacheTest() {
+		Arc arc = new AutoArc() {
+			@Override
+			protected void run() {
+				assertNull(getDatum("a"));
+				assertEquals("default", getDatum("missing", "default"));
+				returnDatum("b", "b");
+			}
+		};
+		Plan plan = new Plan(new Graph(new Link(Set.of(new DiscreteNode("a")), arc, new DiscreteNode("b"))));
+		Overseer overseer = new Overseer(plan, Map.of("extra", 1)); // a datum that is not in the plan
+		overseer.addStartingDatum("a", null);
+		overseer.start();
+
+		Map<String, Object> cache = overseer.getCache();
+		assertEquals(3, cache.size());
+		assertEquals("b", cache.get("b"));
+		assertEquals(1, cache.get("extra"));
+		assertTrue(cache.containsKey("a"));
+		assertNull(cache.get("a"));
+		assertThrows(IllegalArgumentException.class, () -> cache.get("c"));
+		assertThrows(IllegalArgumentException.class, () -> cache.put("b", "again"));
+		assertEquals(new HashSet<>(Arrays.asList("a", "b", "extra")), new HashSet<>(cache.keySet()));
+		assertEquals(Collections.singletonMap("b", "b"), overseer.getResultCache());
+	}
+
+	@Test
+	void datumKeyTest() {
+		Nodespace nodespace = new Nodespace();
+		Node input = nodespace.discreteOf("n");
+		Node output = nodespace.discreteOf("square");
+		DatumKey<Integer> n = nodespace.keyOf("n", Integer.class);
+		DatumKey<Long> square = nodespace.keyOf("square", Long.class);
+		Arc arc = new AutoArc() {
+			@Override
+			protected void run() {
+				int value = getDatum(n);
+				returnDatum(square, (long) value * value);
+			}
+		};
+		Graph graph = new Graph(new Link(Set.of(input), arc, output));
+		assertEquals("square", graph.keyOf("square", Long.class).getName());
+		assertThrows(IllegalArgumentException.class, () -> graph.keyOf("cube", Long.class));
+		assertThrows(IllegalArgumentException.class, () -> nodespace.keyOf("cube", Long.class));
+		assertEquals(square.id, graph.keyOf("square", Long.class).id); // keys of a datum share its slots
+
+		for (Plan plan : List.of(new Plan(graph), new Plan(graph))) { // the keys are resolved again for every plan
+			Overseer overseer = new Overseer(plan);
+			overseer.addStartingDatum("n", 12);
+			overseer.start();
+			assertEquals(144L, overseer.getResultCache().get("square"));
+			assertEquals(plan.slotOf("n"), n.slotIn(plan));
+			assertEquals(plan.slotOf("square"), square.slotIn(plan));
+		}
+	}
+
+	@Test
+	void primitiveTest() {
+		Nodespace nodespace = new Nodespace();
+		Node inputs = nodespace.discreteOf("a", "b");
+		Node stats = nodespace.discreteOf("mean", "count");
+		DatumKey<Double> mean = nodespace.keyOf("mean", Double.class);
+		Arc average = new AutoArc() {
+			@Override
+			protected void run() {
+				returnDouble(mean, (getInt("a") + getLong("b")) / 2.0);
+				returnLong("count", 2);
+			}
+		};
+		Arc scale = new AutoArc() {
+			@Input
+			double mean;
+			@Input
+			long count;
+			@Output
+			double scaled;
+			@Output
+			int rounded;
+
+			@Override
+			protected void run() {
+				scaled = mean * count;
+				rounded = (int) Math.round(mean);
+			}
+		};
+		Graph graph = new Graph(
+				new Link(Set.of(inputs), average, stats),
+				new Link(Set.of(stats), scale, nodespace.discreteOf("scaled", "rounded")));
+
+		Overseer overseer = new Overseer(graph);
+		overseer.addStartingDatum("a", 3);
+		overseer.addStartingDatum("b", 4L);
+		overseer.start();
+		assertEquals(3.5, overseer.getDatum("mean"));
+		assertEquals(2L, overseer.getDatum("count"));
+		assertEquals(7.0, overseer.getResultCache().get("scaled"));
+		assertEquals(4, overseer.getResultCache().get("rounded"));
+		assertEquals(Set.of("a", "b", "mean", "count", "scaled", "rounded"), overseer.getCacheCopy().keySet());
+	}
+
+	@Test
+	void evictionTest() {
+		Nodespace nodespace = new Nodespace();
+		Arc twice = new AutoArc() {
+			@Override
+			protected void run() {
+				returnDatum("b", getInt("a") * 2);
+			}
+		};
+		Arc sum = new AutoArc() {
+			@Override
+			protected void run() {
+				returnDatum("c", getInt("a") + getInt("b"));
+				returnDatum("d", getInt("b") + 1); // b is still readable after this arc finishes
+			}
+		};
+		Arc square = new AutoArc() {
+			@Override
+			protected void run() {
+				returnDatum("e", getInt("c") * getInt("c"));
+			}
+		};
+		Graph graph = new Graph(
+				new Link(Set.of(nodespace.discreteOf("a")), twice, nodespace.discreteOf("b")),
+				new Link(Set.of(nodespace.discreteOf("a"), nodespace.discreteOf("b")), sum,
+						Set.of(nodespace.discreteOf("c"), nodespace.discreteOf("d"))),
+				new Link(Set.of(nodespace.discreteOf("c")), square, nodespace.discreteOf("e")));
+		Plan plan = new Plan(graph);
+
+		for (boolean parallel : new boolean[]{false, true}) {
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(parallel);
+			overseer.setEviction(true);
+			overseer.setPinnedDatums(Set.of("b"));
+			overseer.addStartingDatum("a", 3);
+			overseer.start();
+			assertEquals(Set.of("b", "d", "e"), overseer.getCacheCopy().keySet());
+			assertEquals(Map.of("d", 7, "e", 81), overseer.getResultCache());
+		}
+
+		Overseer overseer = new Overseer(plan);
+		overseer.addStartingDatum("a", 3);
+		overseer.start();
+		assertEquals(Set.of("a", "b", "c", "d", "e"), overseer.getCacheCopy().keySet());
+	}
+
+	@Test
+	void spillTest() {
+		double[] samples = new double[1000];
+		Arrays.setAll(samples, i -> i * 0.5);
+		int[] small = {1, 2, 3};
+		ByteBuffer writable = ByteBuffer.allocate(100);
+		Arc produce = new AutoArc() {
+			@Override
+			protected void run() {
+				returnDatum("samples", samples);
+				returnDatum("small", small);
+				byte[] bytes = new byte[20];
+				bytes[1] = 2;
+				returnDatum("bytes", ByteBuffer.wrap(bytes, 1, 16).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN));
+				returnDatum("writable", writable);
+			}
+		};
+		Arc consume = new AutoArc() {
+			@Override
+			protected void run() {
+				double[] spilled = getDatum("samples");
+				assertNotSame(samples, spilled); // loaded back from the file
+				assertArrayEquals(samples, spilled);
+				assertSame(small, getDatum("small"));
+				ByteBuffer bytes = getDatum("bytes");
+				assertTrue(bytes.isReadOnly());
+				assertEquals(16, bytes.remaining());
+				assertEquals(ByteOrder.LITTLE_ENDIAN, bytes.order());
+				assertEquals(2, bytes.getShort(0));
+				assertSame(writable, getDatum("writable")); // not spilled, as the arc may still write to it
+				returnDatum("sum", Arrays.stream(spilled).sum() + bytes.get(0));
+			}
+		};
+		Node produced = new DiscreteNode("samples", "small", "bytes", "writable");
+		Graph graph = new Graph(new Link(Set.of(), produce, produced),
+				new Link(Set.of(produced), consume, new DiscreteNode("sum")));
+
+		Overseer overseer = new Overseer(graph);
+		overseer.setSpillThreshold(12); // every datum but the 12 bytes of small
+		assertThrows(IllegalArgumentException.class, () -> overseer.setSpillThreshold(-2));
+		overseer.start();
+		assertEquals(249752.0, overseer.getResultCache().get("sum"));
+	}
+
+	@Test
+	void checkpointTest() throws IOException {
+		Path file = Files.createTempFile("trikkle", ".checkpoint");
+		AtomicInteger doubles = new AtomicInteger(0);
+		AtomicBoolean crash = new AtomicBoolean(true);
+		Arc twice = new AutoArc() {
+			@Override
+			protected void run() {
+				doubles.incrementAndGet();
+				returnDatum("b", getInt("a") * 2);
+			}
+		};
+		Arc increment = new AutoArc() {
+			@Override
+			protected void run() {
+				if (crash.get()) {
+					awaitCheckpoint(file); // a periodic checkpoint taken after twice finished
+					throw new IllegalStateException("crash");
+				}
+				returnDatum("c", getInt("b") + 1);
+			}
+		};
+		Nodespace nodespace = new Nodespace();
+		Plan plan = new Plan(new Graph(new Link(Set.of(nodespace.discreteOf("a")), twice, nodespace.discreteOf("b")),
+				new Link(Set.of(nodespace.discreteOf("b")), increment, nodespace.discreteOf("c"))));
+		try {
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(false);
+			overseer.setCheckpointFile(file);
+			overseer.setCheckpointInterval(5, TimeUnit.MILLISECONDS);
+			overseer.addStartingDatum("a", 4);
+			assertThrows(IllegalStateException.class, overseer::start);
+			Checkpoint periodic = Checkpoint.read(file, DatumCodec.SERIALIZATION);
+			assertEquals(1, periodic.getFinishedArcCount());
+			overseer.checkpoint();
+
+			Checkpoint checkpoint = Checkpoint.read(file, DatumCodec.SERIALIZATION);
+			assertEquals(Map.of("a", 4, "b", 8), checkpoint.getCache());
+			crash.set(false);
+			Overseer resumed = Overseer.resume(plan, checkpoint);
+			resumed.start(); // a need not be added again
+			assertEquals(9, resumed.getResultCache().get("c"));
+			assertEquals(1, doubles.get());
+
+			Plan other = new Plan(new Graph(new Link(Set.of(nodespace.discreteOf("b")), increment,
+					nodespace.discreteOf("c"))));
+			assertThrows(IllegalArgumentException.class, () -> Overseer.resume(other, checkpoint));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static void awaitCheckpoint(Path file) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			try {
+				if (Checkpoint.read(file, DatumCodec.SERIALIZATION).getFinishedArcCount() == 1) return;
+			} catch (IOException e) {
+				// not written yet
+			}
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		fail("No periodic checkpoint was written!");
+	}
+
+	@Test
+	void checkpointSharedNodeTest() throws IOException {
+		AtomicInteger xRuns = new AtomicInteger(0);
+		AtomicBoolean crash = new AtomicBoolean(true);
+		Arc xArc = new AutoArc() {
+			@Override
+			protected void run() {
+				xRuns.incrementAndGet();
+				returnDatum("x", getInt("a") + 1);
+			}
+		};
+		Arc yArc = new AutoArc() {
+			@Override
+			protected void run() {
+				if (crash.get()) throw new IllegalStateException("crash");
+				returnDatum("y", getInt("a") + 2);
+			}
+		};
+		Arc sum = new AutoArc() {
+			@Override
+			protected void run() {
+				returnDatum("sum", getInt("x") + getInt("y"));
+			}
+		};
+		Nodespace nodespace = new Nodespace();
+		Node xy = nodespace.discreteOf("x", "y");
+		Plan plan = new Plan(new Graph(new Link(Set.of(nodespace.discreteOf("a")), xArc, xy),
+				new Link(Set.of(nodespace.discreteOf("a")), yArc, xy),
+				new Link(Set.of(xy), sum, nodespace.discreteOf("sum"))));
+		Path file = Files.createTempFile("trikkle", ".checkpoint");
+		try {
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(false);
+			overseer.setCheckpointFile(file);
+			overseer.addStartingDatum("a", 1);
+			assertThrows(IllegalStateException.class, overseer::start);
+			overseer.checkpoint();
+
+			Checkpoint checkpoint = Checkpoint.read(file, DatumCodec.SERIALIZATION);
+			assertEquals(Map.of("a", 1), checkpoint.getCache()); // x was left out, as y is missing
+			crash.set(false);
+			Overseer resumed = Overseer.resume(plan, checkpoint);
+			resumed.start(); // xArc is run again to fill x
+			assertEquals(5, resumed.getResultCache().get("sum"));
+			assertEquals(2, xRuns.get());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void journalTest() throws IOException {
+		AtomicInteger doubles = new AtomicInteger(0);
+		AtomicBoolean crash = new AtomicBoolean(true);
+		Arc twice = new AutoArc() {
+			@Override
+			protected void run() {
+				doubles.incrementAndGet();
+				returnInt("b", getInt("a") * 2);
+				returnDatum("name", "twice");
+			}
+		};
+		Arc increment = new AutoArc() {
+			@Override
+			protected void run() {
+				if (crash.get()) throw new IllegalStateException("crash");
+				returnDatum("c", getInt("b") + 1);
+			}
+		};
+		Nodespace nodespace = new Nodespace();
+		Plan plan = new Plan(new Graph(
+				new Link(Set.of(nodespace.discreteOf("a")), twice, nodespace.discreteOf("b", "name")),
+				new Link(Set.of(nodespace.discreteOf("b", "name")), increment, nodespace.discreteOf("c"))));
+		Path file = Files.createTempFile("trikkle", ".journal");
+		try {
+			try (Journal journal = new Journal(file, DatumCodec.SERIALIZATION)) {
+				Overseer overseer = new Overseer(plan);
+				overseer.setJournal(journal);
+				overseer.addStartingDatum("a", 4);
+				assertThrows(IllegalStateException.class, overseer::start);
+				journal.flush();
+				assertTrue(journal.getBatchCount() >= 1);
+			}
+			Files.write(file, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND); // a torn record
+			assertEquals(Map.of("a", 4, "b", 8, "name", "twice"), Journal.read(file, DatumCodec.SERIALIZATION));
+
+			crash.set(false);
+			Overseer replayed = Journal.replay(file, DatumCodec.SERIALIZATION, plan);
+			replayed.start();
+			assertEquals(9, replayed.getResultCache().get("c"));
+			assertEquals(1, doubles.get());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void journalFailureTest() throws IOException {
+		DatumCodec failing = new DatumCodec() {
+			@Override
+			public byte[] encode(String datumName, Object datum) {
+				throw new IllegalArgumentException("Cannot encode " + datumName + "!");
+			}
+
+			@Override
+			public Object decode(String datumName, byte[] bytes) {
+				throw new UnsupportedOperationException();
+			}
+		};
+		Path file = Files.createTempFile("trikkle", ".journal");
+		try {
+			Journal journal = new Journal(file, failing);
+			journal.append("a", 1, 1);
+			UncheckedIOException e = assertThrows(UncheckedIOException.class, journal::flush);
+			assertTrue(e.getCause().getCause() instanceof IllegalArgumentException);
+			assertThrows(UncheckedIOException.class, () -> journal.append("b", 2, 1));
+			assertThrows(IOException.class, journal::close);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void journalCapacityTest() throws IOException, InterruptedException {
+		CountDownLatch encoding = new CountDownLatch(1), release = new CountDownLatch(1);
+		DatumCodec slow = new DatumCodec() {
+			@Override
+			public byte[] encode(String datumName, Object datum) throws IOException {
+				encoding.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return DatumCodec.SERIALIZATION.encode(datumName, datum);
+			}
+
+			@Override
+			public Object decode(String datumName, byte[] bytes) throws IOException {
+				return DatumCodec.SERIALIZATION.decode(datumName, bytes);
+			}
+		};
+		Path file = Files.createTempFile("trikkle", ".journal");
+		try {
+			Journal journal = new Journal(file, slow, 1);
+			journal.append("a", 1, 1);
+			encoding.await();
+			Thread appender = new Thread(() -> journal.append("b", 2, 1));
+			appender.start();
+			while (appender.getState() != Thread.State.WAITING) {
+				Thread.sleep(1);
+			}
+			release.countDown(); // the first batch is forced, which frees the journal for the second datum
+			appender.join();
+			journal.close();
+			assertThrows(IllegalStateException.class, () -> journal.append("c", 3, 1));
+			assertEquals(Map.of("a", 1, "b", 2), Journal.read(file, DatumCodec.SERIALIZATION));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void eventLoopTest() {
+		List<Link> links = new ArrayList<>();
+		Node previous = new DiscreteNode("x0");
+		for (int i = 1; i <= 20000; i++) {
+			String inputName = "x" + (i - 1);
+			String outputName = "x" + i;
+			Arc arc = new AutoArc() {
+				@Override
+				protected void run() {
+					int x = getDatum(inputName);
+					returnDatum(outputName, x + 1);
+				}
+			};
+			Node next = new DiscreteNode(outputName);
+			links.add(new Link(Set.of(previous), arc, next));
+			previous = next;
+		}
+		Plan plan = new Plan(new Graph(links));
+
+		for (boolean parallel : new boolean[]{false, true}) {
+			Overseer overseer = new Overseer(plan);
+			overseer.setParallel(parallel);
+			overseer.setEventLoop(true);
+			overseer.setDependencyCounting(true);
+			overseer.setLogging(true);
+			overseer.addStartingDatum("x0", 0);
+			overseer.start();
+			assertEquals(20000, overseer.getResultCache().get("x20000"));
+			assertEquals(20000, overseer.getTick());
+		}
+	}
 }
@@ -0,0 +1,61 @@
+package org.trikkle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.trikkle.OverseerTest.sleep;
+
+class PipelineTest {
+	@Test
+	void pipelineTest() throws Exception {
+		AtomicInteger inPipeline = new AtomicInteger(0);
+		AtomicInteger maxInPipeline = new AtomicInteger(0);
+		List<Link> links = new ArrayList<>();
+		Node previous = new DiscreteNode("x0");
+		for (int i = 1; i <= 4; i++) { // 4 stages of 50 ms each
+			String inputName = "x" + (i - 1);
+			String outputName = "x" + i;
+			boolean first = i == 1, last = i == 4;
+			Arc stage = new AutoArc(outputName) {
+				@Override
+				protected void run() {
+					if (first) maxInPipeline.accumulateAndGet(inPipeline.incrementAndGet(), Math::max);
+					int x = getDatum(inputName);
+					sleep(50);
+					if (last) inPipeline.decrementAndGet();
+					returnDatum(outputName, x + 1);
+				}
+			};
+			stage.setBlocking(true);
+			Node next = new DiscreteNode(outputName);
+			links.add(new Link(Set.of(previous), stage, next));
+			previous = next;
+		}
+		Pipeline pipeline = new Pipeline(new Plan(new Graph(links)), 3);
+
+		long start = System.currentTimeMillis();
+		List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			futures.add(pipeline.submit(Map.of("x0", i * 10)));
+		}
+		for (int i = 0; i < 12; i++) {
+			assertEquals(i * 10 + 4, futures.get(i).get(5, TimeUnit.SECONDS).get("x4"));
+		}
+		long end = System.currentTimeMillis();
+		assertTrue(end - start < 12 * 200); // faster than one request after another
+		assertTrue(maxInPipeline.get() <= 3);
+		assertEquals(0, pipeline.getInPipeline());
+		assertEquals(0, pipeline.getWaiting());
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> pipeline.submit(Map.of()).get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IllegalStateException);
+		assertThrows(IllegalArgumentException.class, () -> new Pipeline(new Plan(new Graph(links)), 0));
+	}
+}